@@ -0,0 +1,74 @@
+package minitwitter.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import minitwitter.AnalysisVisitor;
+import minitwitter.ParallelAnalysisVisitor;
+import minitwitter.User;
+import minitwitter.UserGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AnalysisBenchmark measures full analysis passes, with the AnalysisVisitor and the ParallelAnalysisVisitor,
+ * over a tree of the given number of users spread over groups ten to a level, each with one tweet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AnalysisBenchmark {
+    @Param({ "10000", "100000" })
+    public int users;
+
+    private UserGroup root;
+
+    @Setup
+    public void setUp() {
+        root = new UserGroup("analysis");
+        List<UserGroup> level = new ArrayList<>();
+        level.add(root);
+        while (level.size() * 10 < users / 100) {
+            List<UserGroup> next = new ArrayList<>();
+            for (UserGroup group : level) {
+                for (int i = 0; i < 10; i++) {
+                    UserGroup child = new UserGroup(group.getName() + "." + i);
+                    group.add(child);
+                    next.add(child);
+                }
+            }
+            level = next;
+        }
+        for (int i = 0; i < users; i++) {
+            User user = new User("analysis-" + i);
+            level.get(i % level.size()).add(user);
+            user.postTweet(i % 2 == 0 ? "good news" : "news").join();
+        }
+    }
+
+    @Benchmark
+    public AnalysisVisitor analysisTraversal() {
+        AnalysisVisitor visitor = new AnalysisVisitor();
+        root.accept(visitor);
+        return visitor;
+    }
+
+    @Benchmark
+    public AnalysisVisitor parallelAnalysisTraversal() {
+        AnalysisVisitor visitor = new ParallelAnalysisVisitor();
+        root.accept(visitor);
+        return visitor;
+    }
+}
@@ -0,0 +1,63 @@
+package minitwitter.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import minitwitter.MiniTwitterEngine;
+import minitwitter.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FollowBenchmark measures following on a dense graph, where every user already follows a hundred others:
+ * random pairs of users follow each other, most of them for the first time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FollowBenchmark {
+    private static final int DEGREE = 100;
+
+    @Param({ "10000" })
+    public int users;
+
+    private MiniTwitterEngine engine;
+    private User[] members;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        engine = new MiniTwitterEngine();
+        members = Users.create(engine, "followDense", users);
+        random = new Random(1);
+        for (User user : members) {
+            for (int i = 0; i < DEGREE; i++) {
+                engine.follow(user, members[random.nextInt(users)]);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        engine.close();
+    }
+
+    @Benchmark
+    public User followDense() {
+        User follower = members[random.nextInt(users)];
+        engine.follow(follower, members[random.nextInt(users)]);
+        return follower;
+    }
+}
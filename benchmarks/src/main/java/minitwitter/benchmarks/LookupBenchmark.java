@@ -0,0 +1,61 @@
+package minitwitter.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import minitwitter.MiniTwitterEngine;
+import minitwitter.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LookupBenchmark measures finding random users by their full name, as the UserView does when following, and
+ * autocompleting random prefixes, as it does while a name is typed into the follow field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LookupBenchmark {
+    @Param({ "100000" })
+    public int users;
+
+    private MiniTwitterEngine engine;
+    private User[] members;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        engine = new MiniTwitterEngine();
+        members = Users.create(engine, "lookup", users);
+        random = new Random(1);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        engine.close();
+    }
+
+    @Benchmark
+    public User findUserByName() {
+        return engine.findUserByName(members[random.nextInt(users)].getName());
+    }
+
+    @Benchmark
+    public List<String> findUserNamesByPrefix() {
+        String name = members[random.nextInt(users)].getName();
+        return engine.findUserNamesByPrefix(name.substring(0, name.length() - 2), 10);
+    }
+}
@@ -0,0 +1,58 @@
+package minitwitter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import minitwitter.MiniTwitterEngine;
+import minitwitter.Tweet;
+import minitwitter.User;
+import minitwitter.UserGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PostBenchmark measures posting a tweet from an author with a given number of followers and waiting until it
+ * is delivered. Below the pull threshold of 1000 tweets are pushed to every follower, so 999 is the largest
+ * fan-out that is pushed; from 1000 on followers pull them and the post returns at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PostBenchmark {
+    @Param({ "10", "100", "999", "10000" })
+    public int followers;
+
+    private MiniTwitterEngine engine;
+    private User author;
+
+    @Setup
+    public void setUp() {
+        engine = new MiniTwitterEngine();
+        UserGroup group = engine.createGroup("postFanout", engine.getRoot());
+        author = engine.createUser("author", group);
+        for (int i = 0; i < followers; i++) {
+            engine.follow(engine.createUser("follower-" + i, group), author);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        engine.close();
+    }
+
+    @Benchmark
+    public Tweet postFanout() {
+        return engine.post(author, "good morning").join();
+    }
+}
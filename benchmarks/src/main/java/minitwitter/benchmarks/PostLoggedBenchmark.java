@@ -0,0 +1,72 @@
+package minitwitter.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import minitwitter.FsyncPolicy;
+import minitwitter.MiniTwitterEngine;
+import minitwitter.Tweet;
+import minitwitter.User;
+import minitwitter.UserGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PostLoggedBenchmark measures what logging adds to posting: a tweet to ten followers, waited on until it is
+ * delivered, by an engine kept only in memory and by engines opened with a snapshot and write-ahead log under
+ * each FsyncPolicy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PostLoggedBenchmark {
+    @Param({ "none", "NEVER", "INTERVAL", "ALWAYS" })
+    public String log;
+
+    private Path directory;
+    private MiniTwitterEngine engine;
+    private User author;
+
+    @Setup
+    public void setUp() throws Exception {
+        if (log.equals("none")) {
+            engine = new MiniTwitterEngine();
+        } else {
+            directory = Files.createTempDirectory("benchmark");
+            engine = MiniTwitterEngine.open(directory.resolve("minitwitter.snapshot"), directory.resolve("minitwitter.wal"),
+                    FsyncPolicy.valueOf(log), 1000, 0);
+        }
+        UserGroup group = engine.createGroup("postLogged", engine.getRoot());
+        author = engine.createUser("author", group);
+        for (int i = 0; i < 10; i++) {
+            engine.follow(engine.createUser("follower-" + i, group), author);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        engine.close();
+        if (directory != null) {
+            Files.deleteIfExists(directory.resolve("minitwitter.wal"));
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Benchmark
+    public Tweet postLogged() {
+        return engine.post(author, "good morning").join();
+    }
+}
@@ -0,0 +1,61 @@
+package minitwitter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import minitwitter.MiniTwitterEngine;
+import minitwitter.SearchPage;
+import minitwitter.TweetIndex;
+import minitwitter.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SearchBenchmark measures searching a first page of tweets for two words that appear together in a tenth of
+ * the given number of tweets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+    @Param({ "100000" })
+    public int tweets;
+
+    private MiniTwitterEngine engine;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        engine = new MiniTwitterEngine();
+        User author = engine.createUser("searcher", engine.getRoot());
+        for (int i = 0; i < tweets; i++) {
+            String words = (i % 10 == 0 ? "coffee " : "") + (i % 3 == 0 ? "morning" : "evening");
+            engine.post(author, words).join();
+        }
+        // Tweets are indexed in ID order in the background, so once the last one is found they all are
+        engine.post(author, "indexed").join();
+        while (engine.searchTweets("indexed", null, TweetIndex.NEWEST, 1).getTweets().isEmpty()) {
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        engine.close();
+    }
+
+    @Benchmark
+    public SearchPage searchTweets() {
+        return engine.searchTweets("coffee morning", null, TweetIndex.NEWEST, 20);
+    }
+}
@@ -0,0 +1,21 @@
+package minitwitter.benchmarks;
+
+import minitwitter.MiniTwitterEngine;
+import minitwitter.User;
+import minitwitter.UserGroup;
+
+/** Users holds the set-up shared by the benchmarks that need many users in one group. */
+final class Users {
+    private Users() {
+    }
+
+    /** Creates a group under the root and the given number of users in it, named after the prefix. */
+    static User[] create(MiniTwitterEngine engine, String prefix, int count) {
+        UserGroup group = engine.createGroup(prefix, engine.getRoot());
+        User[] users = new User[count];
+        for (int i = 0; i < count; i++) {
+            users[i] = engine.createUser(prefix + "-" + i, group);
+        }
+        return users;
+    }
+}
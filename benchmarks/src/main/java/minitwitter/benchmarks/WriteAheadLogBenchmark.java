@@ -0,0 +1,64 @@
+package minitwitter.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import minitwitter.FsyncPolicy;
+import minitwitter.MiniTwitterEngine;
+import minitwitter.Tweet;
+import minitwitter.WriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WriteAheadLogBenchmark measures logging a tweet and syncing the log, as every post does when the engine is
+ * opened with a log. Only FsyncPolicy.NEVER runs by default, to time the log itself rather than the disk; pass
+ * -p fsync=ALWAYS,INTERVAL,NEVER to compare the policies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WriteAheadLogBenchmark {
+    @Param({ "NEVER" })
+    public FsyncPolicy fsync;
+
+    private Path path;
+    private WriteAheadLog log;
+    private MiniTwitterEngine engine;
+    private Tweet tweet;
+
+    @Setup
+    public void setUp() throws Exception {
+        path = Files.createTempFile("benchmark", ".wal");
+        log = WriteAheadLog.open(path, fsync, 1000);
+        engine = new MiniTwitterEngine();
+        tweet = engine.post(engine.createUser("logger", engine.getRoot()), "good morning").join();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        engine.close();
+        log.close();
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public Tweet writeAheadLogTweet() throws Exception {
+        log.logTweet(tweet);
+        log.sync();
+        return tweet;
+    }
+}
@@ -0,0 +1,385 @@
+package minitwitter;
+
+import javax.swing.*;
+import javax.swing.tree.TreePath;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.IntFunction;
+
+/**
+ * The AdminControlPanel class is the main part of the UI and frontend, as well as the connection for using the
+ * backend classes for users, groups, and the visitor, all of which it reaches through the MiniTwitterEngine.
+ * The admin panel is implemented with a Singleton Pattern, since it only needs to be instantiated once in the
+ * program. AdminControlPanel includes three more panels that include the User tree, buttons for adding users,
+ * groups and opening a user view, as well as buttons for showing the analysis, next to panels of live metrics
+ * and of the posting rates and trending words of the last minute.
+ */
+public class AdminControlPanel extends JFrame {
+    private static final long serialVersionUID = 1L;
+    private static final String LOG_PATH = System.getProperty("minitwitter.log", "minitwitter.wal");
+    private static final FsyncPolicy FSYNC_POLICY = FsyncPolicy.valueOf(System.getProperty("minitwitter.fsync", "INTERVAL"));
+    private static final long FSYNC_INTERVAL_MILLIS = 1000;
+    private static final String SNAPSHOT_PATH = System.getProperty("minitwitter.snapshot", "minitwitter.snapshot");
+    private static final int CHECKPOINT_MINUTES = Integer.getInteger("minitwitter.checkpointMinutes", 10); // 0 turns checkpoints off
+    private static final double DISTINCT_TWEET_ERROR = Double.parseDouble(System.getProperty("minitwitter.distinctError",
+            String.valueOf(DistinctTweetCounter.EXACT))); // Above 0 estimates counts within about that error
+
+    private static final int SEARCH_PAGE_SIZE = 50;
+
+    private static AdminControlPanel instance; // Singleton instance
+
+    private JTree userTree; // Tree to display users and groups
+    private UserTreeModel treeModel; // Model for the user tree
+    private MiniTwitterEngine engine; // Holds the network; the panel only shows it
+
+    private JTextField userIdField;
+    private JTextField groupIdField; 
+    private JTextField searchField;
+
+    /**
+     * Private constructor to implement Singleton pattern.
+     */
+    private AdminControlPanel() {
+        setTitle("Admin Control Panel");
+        setSize(1000, 550);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        initializeComponents();
+    }
+
+    /**
+     * Gets the single instance of AdminControlPanel.
+     *
+     * @return single instance of AdminControlPanel
+     */
+    public static AdminControlPanel getInstance() {
+        if (instance == null) {
+            instance = new AdminControlPanel();
+        }
+        return instance;
+    }
+    
+    //Initializes UI components.
+    private void initializeComponents() {
+        // Open the engine, restoring whatever the snapshot and write-ahead log hold, and show its groups
+        engine = openEngine();
+        treeModel = new UserTreeModel(engine);
+        userTree = new JTree(treeModel) {
+            @Override
+            public String convertValueToText(Object value, boolean selected, boolean expanded, boolean leaf, int row, boolean hasFocus) {
+                return ((UserInterface) value).getName();
+            }
+        };
+        // Rows of a fixed height let the tree lay out only the rows on screen, however many members a group has
+        userTree.setRowHeight(18);
+        userTree.setLargeModel(true);
+        JScrollPane treeView = new JScrollPane(userTree);
+
+        // Add mouse listener to open user view on double-click
+        userTree.addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent me) {
+                if (me.getClickCount() == 2) {
+                    openUserView();
+                }
+            }
+        });
+
+        JPanel controlPanel = new JPanel(new GridLayout(5, 1));
+
+        // Panel for adding users
+        JPanel userPanel = new JPanel(new FlowLayout());
+        userIdField = new JTextField(10);
+        JButton addUserButton = new JButton("Add User");
+        addUserButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                addUser();
+            }
+        });
+        userPanel.add(new JLabel("User Name:"));
+        userPanel.add(userIdField);
+        userPanel.add(addUserButton);
+
+        // Panel for adding groups
+        JPanel groupPanel = new JPanel(new FlowLayout());
+        groupIdField = new JTextField(10);
+        JButton addGroupButton = new JButton("Add Group");
+        addGroupButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                addGroup();
+            }
+        });
+        groupPanel.add(new JLabel("Group Name:"));
+        groupPanel.add(groupIdField);
+        groupPanel.add(addGroupButton);
+
+        // Panel for searching tweets
+        JPanel searchPanel = new JPanel(new FlowLayout());
+        searchField = new JTextField(20);
+        JButton searchButton = new JButton("Search Tweets");
+        searchButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                searchTweets();
+            }
+        });
+        searchPanel.add(new JLabel("Search:"));
+        searchPanel.add(searchField);
+        searchPanel.add(searchButton);
+
+        // Panel for showing analysis
+        JPanel analysisPanel = new JPanel(new FlowLayout());
+        JButton userCountButton = new JButton("Total Users");
+        userCountButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showTotalUsers();
+            }
+        });
+        JButton groupCountButton = new JButton("Total Groups");
+        groupCountButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showTotalGroups();
+            }
+        });
+        JButton tweetCountButton = new JButton("Total Tweets");
+        tweetCountButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showTotalTweets();
+            }
+        });
+        JButton positivePercentageButton = new JButton("Positive Tweets");
+        positivePercentageButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showPositiveTweetPercentage();
+            }
+        });
+
+        JButton distinctTweetsButton = new JButton("Distinct Tweets");
+        distinctTweetsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showDistinctTweets();
+            }
+        });
+
+        JButton validateIDsButton = new JButton("Validate IDs");
+        validateIDsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                validateIDs();
+            }
+        });
+
+        JButton verifyStatisticsButton = new JButton("Verify Statistics");
+        verifyStatisticsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                verifyStatistics();
+            }
+        });
+
+        JButton lastUpdatedUserButton = new JButton("Last Updated User");
+        lastUpdatedUserButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showLastUpdatedUser();
+            }
+        });
+
+        // Add buttons to analysis panel
+        analysisPanel.add(userCountButton);
+        analysisPanel.add(groupCountButton);
+        analysisPanel.add(tweetCountButton);
+        analysisPanel.add(positivePercentageButton);
+        analysisPanel.add(distinctTweetsButton);
+
+        JPanel validationPanel = new JPanel(new FlowLayout());
+        validationPanel.add(validateIDsButton);
+        validationPanel.add(verifyStatisticsButton);
+        validationPanel.add(lastUpdatedUserButton);
+
+        // Add sub-panels to control panel
+        controlPanel.add(userPanel);
+        controlPanel.add(groupPanel);
+        controlPanel.add(searchPanel);
+        controlPanel.add(analysisPanel);
+        controlPanel.add(validationPanel);
+
+        // Add main components to the frame
+        add(treeView, BorderLayout.CENTER);
+        add(controlPanel, BorderLayout.SOUTH);
+        JPanel livePanel = new JPanel(new BorderLayout());
+        livePanel.add(new MetricsPanel(), BorderLayout.CENTER);
+        livePanel.add(new TrendingPanel(engine.getAnalytics()), BorderLayout.SOUTH);
+        add(livePanel, BorderLayout.EAST);
+    }
+
+    // Opens an engine that loads the last snapshot, replays the write-ahead log on top of it, then logs every
+    // change. Returns an engine that is only kept in memory if the files cannot be opened.
+    private MiniTwitterEngine openEngine() {
+        try {
+            final MiniTwitterEngine durableEngine = MiniTwitterEngine.open(Paths.get(SNAPSHOT_PATH), Paths.get(LOG_PATH),
+                    FSYNC_POLICY, FSYNC_INTERVAL_MILLIS, CHECKPOINT_MINUTES, DISTINCT_TWEET_ERROR);
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        durableEngine.close();
+                    } catch (IOException e) {
+                        System.err.println("Could not close the write-ahead log: " + e.getMessage());
+                    }
+                }
+            }));
+            return durableEngine;
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not open " + LOG_PATH + ", changes will not be saved: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return new MiniTwitterEngine(DISTINCT_TWEET_ERROR);
+        }
+    }
+
+    // IdRegistry refuses a duplicate ID as soon as a user or group is created, so the IDs are valid as long as
+    // every user and group holds a registered ID, which comparing the counts shows without walking the tree.
+    private void validateIDs() {
+        StatisticsService statistics = engine.getStatistics();
+        int registered = IdRegistry.getInstance().size();
+        if (registered == statistics.getUserCount() + statistics.getUserGroupCount()) {
+            JOptionPane.showMessageDialog(this, "All IDs are valid.", "Info", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, "There are invalid IDs.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Recounts everything with a full analysis pass and compares it with the statistics kept as the tree changes.
+    private void verifyStatistics() {
+        if (engine.verifyStatistics()) {
+            JOptionPane.showMessageDialog(this, "The statistics match a full recount.", "Info", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, "The statistics do not match a full recount.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void showLastUpdatedUser() {
+        User lastUpdatedUser = getReportedGroup().getLastUpdatedUser();
+        String message = (lastUpdatedUser != null) ? "Last Updated User: " + lastUpdatedUser.getName() : "No updates found.";
+        JOptionPane.showMessageDialog(this, message, "Info", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void addUser() {
+        String userName = userIdField.getText();
+        if (!userName.isEmpty()) {
+            UserGroup selectedGroup = getSelectedGroup();
+            if (selectedGroup != null) {
+                engine.createUser(userName, selectedGroup);
+            } else {
+                JOptionPane.showMessageDialog(this, "Please select a group to add the user to.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+            userIdField.setText("");
+        } else {
+            JOptionPane.showMessageDialog(this, "User Name cannot be empty", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void addGroup() {
+        String groupName = groupIdField.getText();
+        if (!groupName.isEmpty()) {
+            UserGroup selectedGroup = getSelectedGroup();
+            if (selectedGroup != null) {
+                engine.createGroup(groupName, selectedGroup);
+            } else {
+                JOptionPane.showMessageDialog(this, "Please select a group to add the new group to.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+            groupIdField.setText("");
+        } else {
+            JOptionPane.showMessageDialog(this, "Group Name cannot be empty", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Returns the selected group, expanded so the member about to be added shows; the root group if nothing is
+    // selected; or null if a user is selected. The tree model adds the new member's row once the engine reports it.
+    private UserGroup getSelectedGroup() {
+        TreePath selectedPath = userTree.getSelectionPath();
+        if (selectedPath == null) {
+            return engine.getRoot();
+        }
+        if (!(selectedPath.getLastPathComponent() instanceof UserGroup)) {
+            return null;
+        }
+        userTree.expandPath(selectedPath);
+        return (UserGroup) selectedPath.getLastPathComponent();
+    }
+
+    // Returns the group the analysis buttons report on: the selected group, or the root group if nothing or a
+    // user is selected.
+    private UserGroup getReportedGroup() {
+        Object selectedObject = userTree.getLastSelectedPathComponent();
+        return selectedObject instanceof UserGroup ? (UserGroup) selectedObject : engine.getRoot();
+    }
+
+    private void openUserView() {
+        Object selectedObject = userTree.getLastSelectedPathComponent();
+        if (selectedObject instanceof User) {
+            new UserView((User) selectedObject, engine);
+        }
+    }
+
+    // Group totals are kept by each group for its whole subtree, so any selected group reports them in O(1)
+    private void showTotalUsers() {
+        UserGroup group = getReportedGroup();
+        JOptionPane.showMessageDialog(this, "Total Users in " + group.getName() + ": " + group.getSubtreeUserCount(), "Info", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void showTotalGroups() {
+        UserGroup group = getReportedGroup();
+        // The group itself counts, as the root does in the totals of the whole tree
+        JOptionPane.showMessageDialog(this, "Total Groups in " + group.getName() + ": " + (group.getSubtreeGroupCount() + 1), "Info", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void showTotalTweets() {
+        UserGroup group = getReportedGroup();
+        JOptionPane.showMessageDialog(this, "Total Tweets in " + group.getName() + ": " + group.getSubtreeTweetCount(), "Info", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void showPositiveTweetPercentage() {
+        UserGroup group = getReportedGroup();
+        JOptionPane.showMessageDialog(this, "Positive Tweets in " + group.getName() + ": " + group.getSubtreePositivePercentage() + "%", "Info", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // Searches the tweets posted under the selected group, or the whole tree if nothing or a user is selected.
+    private void searchTweets() {
+        final String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Search cannot be empty", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        final UserGroup group = getReportedGroup();
+        String title = "Tweets in " + group.getName() + " matching " + query;
+        new SearchResultsDialog(this, engine, title, new IntFunction<SearchPage>() {
+            @Override
+            public SearchPage apply(int cursor) {
+                return engine.searchTweets(query, group, cursor, SEARCH_PAGE_SIZE);
+            }
+        });
+    }
+
+    // Shows how many different texts have been posted under the selected group, or the whole tree if nothing
+    // or a user is selected.
+    private void showDistinctTweets() {
+        UserGroup group = getReportedGroup();
+        DistinctTweetCounter counter = engine.getDistinctTweets();
+        String count = String.valueOf(counter.count(group));
+        if (counter.isApproximate()) {
+            count = "about " + count + " (+-" + Math.round(counter.getRelativeError() * 1000) / 10.0 + "%)";
+        }
+        JOptionPane.showMessageDialog(this, "Distinct Tweets in " + group.getName() + ": " + count, "Info", JOptionPane.INFORMATION_MESSAGE);
+    }
+}
@@ -1,6 +1,4 @@
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+package minitwitter;
 
 /**
  * The AnalysisVisitor class is an object that collects the statistical counts for the analysis features of the
@@ -14,9 +12,6 @@ public class AnalysisVisitor {
     private int positiveCount;
     private User lastUpdatedUser;
     private long lastUpdateTime;
-    private Set<String> uniqueTweets;
-
-    private final String[] POSITIVE_WORDS = {"good", "nice", "awesome", "happy", "great", "enjoy"};
 
     /** Constructor sets the initial counts all at 0 */
     public AnalysisVisitor() {
@@ -30,7 +25,6 @@ public class AnalysisVisitor {
         positiveCount = 0;
         lastUpdatedUser = null;
         lastUpdateTime = 0;
-        uniqueTweets = new HashSet<>();
     }
 
     public int getUserCount() {
@@ -42,7 +36,7 @@ public class AnalysisVisitor {
     }
 
     public int getNewsFeedCount() {
-        return uniqueTweets.size();
+        return newsFeedCount;
     }
 
     public User getLastUpdatedUser() {
@@ -51,7 +45,9 @@ public class AnalysisVisitor {
 
     public void visit(User user) {
         userCount++;
-        visitNewsFeed(user.getTweets());
+        // Every tweet is in its author's feed, so counting each user's own tweets counts every distinct tweet once
+        newsFeedCount += user.getTweetCount();
+        positiveCount += user.getPositiveTweetCount();
         if (user.getLastUpdateTime() > lastUpdateTime) {
             lastUpdateTime = user.getLastUpdateTime();
             lastUpdatedUser = user;
@@ -59,31 +55,37 @@ public class AnalysisVisitor {
     }
 
     public void visit(UserGroup userGroup) {
-        userGroupCount++;
+        countUserGroup();
         for (UserInterface member : userGroup.getMembers()) {
             member.accept(this);
         }
     }
 
-    public float getPositivePercentage() {
-        if (uniqueTweets.size() == 0) {
-            return 0;
-        }
+    /** Counts a group without visiting its members, for subclasses that visit the members themselves. */
+    protected void countUserGroup() {
+        userGroupCount++;
+    }
 
-        return ((float) positiveCount / uniqueTweets.size()) * 100;
+    /**
+     * Adds the results of another visitor that visited a later part of the tree to this one, giving the same
+     * counts as if this visitor had visited both parts in order.
+     */
+    public void merge(AnalysisVisitor other) {
+        userCount += other.userCount;
+        userGroupCount += other.userGroupCount;
+        newsFeedCount += other.newsFeedCount;
+        positiveCount += other.positiveCount;
+        if (other.lastUpdateTime > lastUpdateTime) {
+            lastUpdateTime = other.lastUpdateTime;
+            lastUpdatedUser = other.lastUpdatedUser;
+        }
     }
 
-    private void visitNewsFeed(List<String> newsFeed) {
-        for (String post : newsFeed) {
-            if (uniqueTweets.add(post)) {
-                newsFeedCount++;
-                for (String positiveWord : POSITIVE_WORDS) {
-                    if (post.toLowerCase().contains(positiveWord.toLowerCase())) {
-                        positiveCount++;
-                        break;
-                    }
-                }
-            }
+    public float getPositivePercentage() {
+        if (newsFeedCount == 0) {
+            return 0;
         }
+
+        return ((float) positiveCount / newsFeedCount) * 100;
     }
 }
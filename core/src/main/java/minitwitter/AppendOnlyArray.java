@@ -0,0 +1,107 @@
+package minitwitter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * AppendOnlyArray is an indexed list that can only grow, for the stores that hand out dense indexes such as the
+ * UserRegistry and the TweetStore. Neither appends nor reads take a lock. An append claims the next index with
+ * an atomic increment and stores its element there; elements live in fixed-size chunks that are never moved,
+ * and an element can be read by its index as soon as it is stored. Only adding a chunk, once every CHUNK_SIZE
+ * appends, is locked.
+ *
+ * Appends on different threads may store their elements out of index order, so the size counts only the
+ * elements stored with none missing before them. Every append moves the size past the elements found stored
+ * after it, so an append that stores late also publishes the ones that were waiting on it, and no append ever
+ * waits for another.
+ */
+public class AppendOnlyArray<T> {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile AtomicReferenceArray<?>[] chunks; // Replaced, never changed, when a chunk is added
+    private final AtomicInteger claimed = new AtomicInteger(); // Indexes handed out so far
+    private final AtomicInteger size = new AtomicInteger(); // Elements stored with none missing before them
+
+    /** Constructs an empty array. */
+    public AppendOnlyArray() {
+        this.chunks = new AtomicReferenceArray<?>[1];
+    }
+
+    /** Appends the element, which must not be null, and returns its index. */
+    public int add(T element) {
+        int index = claim();
+        set(index, element);
+        return index;
+    }
+
+    /**
+     * Claims the next index, for an element that needs to know its own index. The caller must pass the index
+     * to set() straight away, since the size cannot move past it until then.
+     */
+    public int claim() {
+        return claimed.getAndIncrement();
+    }
+
+    /** Stores the element, which must not be null, at an index from claim(). */
+    @SuppressWarnings("unchecked")
+    public void set(int index, T element) {
+        ((AtomicReferenceArray<Object>) chunk(index)).set(index & CHUNK_MASK, element);
+        int published = size.get();
+        while (stored(published) != null) {
+            size.compareAndSet(published, published + 1);
+            published = size.get();
+        }
+    }
+
+    /** Returns the element at the given index. */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Object element = stored(index);
+        if (element == null) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size.get());
+        }
+        return (T) element;
+    }
+
+    /** Returns the number of elements stored with none missing before them. */
+    public int size() {
+        return size.get();
+    }
+
+    /** Returns the number of indexes claimed, which is also the index the next append will get. */
+    public int claimedCount() {
+        return claimed.get();
+    }
+
+    // Returns the element stored at the index, or null if there is none yet.
+    private Object stored(int index) {
+        AtomicReferenceArray<?>[] current = chunks;
+        int chunk = index >>> CHUNK_BITS;
+        if (index < 0 || chunk >= current.length || current[chunk] == null) {
+            return null;
+        }
+        return current[chunk].get(index & CHUNK_MASK);
+    }
+
+    // Returns the chunk holding the index, adding it if this is the first append to reach it.
+    private AtomicReferenceArray<?> chunk(int index) {
+        int chunk = index >>> CHUNK_BITS;
+        AtomicReferenceArray<?>[] current = chunks;
+        if (chunk < current.length && current[chunk] != null) {
+            return current[chunk];
+        }
+        synchronized (this) {
+            current = chunks;
+            if (chunk >= current.length || current[chunk] == null) {
+                AtomicReferenceArray<?>[] grown = Arrays.copyOf(current, Math.max(current.length, Integer.highestOneBit(chunk) * 2));
+                grown[chunk] = new AtomicReferenceArray<>(CHUNK_SIZE);
+                chunks = grown;
+                current = grown;
+            }
+            return current[chunk];
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package minitwitter;
+
+import java.util.Arrays;
+
+/**
+ * CountMinSketch estimates how often each word has been added, in a fixed amount of memory no matter how many
+ * words or how many occurrences it sees. Each word is counted in one cell of every row, picked by a different
+ * hash per row, and its estimate is the smallest of those cells. Collisions can only add to a cell, so an
+ * estimate is never too low, and with high probability it is too high by at most a small fraction of the total.
+ */
+public class CountMinSketch {
+    private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L };
+
+    private final int[][] rows;
+    private final int mask;
+
+    /** Constructs a sketch with four rows of the given width, which must be a power of two. */
+    public CountMinSketch(int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Width must be a power of two");
+        }
+        this.rows = new int[SEEDS.length][width];
+        this.mask = width - 1;
+    }
+
+    /** Adds one occurrence of the word and returns its new estimate. */
+    public int add(String word) {
+        int hash = word.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < rows.length; row++) {
+            estimate = Math.min(estimate, ++rows[row][cell(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /** Returns the estimated number of occurrences of the word. */
+    public int estimate(String word) {
+        int hash = word.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < rows.length; row++) {
+            estimate = Math.min(estimate, rows[row][cell(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /** Forgets everything added. */
+    public void clear() {
+        for (int[] row : rows) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    // Mixes the word's hash with the row's seed, so each row spreads the words differently.
+    private int cell(int hash, int row) {
+        long mixed = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+        return (int) (mixed >>> 32) & mask;
+    }
+}
@@ -0,0 +1,117 @@
+package minitwitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DistinctTweetCounter counts how many different tweet texts have been posted by the users of each group and
+ * of everything under it. Each group keeps the texts posted by its own users; the count for a subtree combines
+ * the sets of every group in it, so a text posted in two groups is still counted once.
+ *
+ * In exact mode, the default, each group keeps the texts themselves, which is right for small deployments but
+ * grows with every tweet. Approximate mode is turned on by giving the error allowed: each group then keeps a
+ * HyperLogLog sketch of a fixed size picked from that error, and the sketches of a subtree are merged into one
+ * to estimate its count, so large deployments count in a fixed amount of memory per group.
+ *
+ * Tweets are reported from the threads that post them. Each sketch is locked only while a text is added to it
+ * or it is merged into a count, so counting a subtree never holds up posting for longer than one merge, and
+ * posts in different groups never wait for each other.
+ */
+public class DistinctTweetCounter implements TweetListener {
+    /** The relative error that asks for exact counts, which is the default. */
+    public static final double EXACT = 0;
+
+    private final double relativeError; // 0 in exact mode
+    private final Map<UserGroup, Set<String>> exactTexts; // Groups whose own users have posted, in exact mode
+    private final Map<UserGroup, HyperLogLog> sketches; // Groups whose own users have posted, in approximate mode
+
+    /**
+     * Constructs a counter that counts exactly if relativeError is 0, and otherwise estimates counts with about
+     * that relative standard error, such as 0.02.
+     */
+    public DistinctTweetCounter(double relativeError) {
+        if (relativeError < 0 || relativeError >= 1) {
+            throw new IllegalArgumentException("The error must be 0 for exact counts, or between 0 and 1");
+        }
+        this.relativeError = relativeError;
+        this.exactTexts = new ConcurrentHashMap<>();
+        this.sketches = new ConcurrentHashMap<>();
+    }
+
+    public boolean isApproximate() {
+        return relativeError > 0;
+    }
+
+    /** Returns the relative standard error of the counts, or 0 if they are exact. */
+    public double getRelativeError() {
+        return isApproximate() ? new HyperLogLog(relativeError).getRelativeError() : 0;
+    }
+
+    @Override
+    public void tweetPosted(User author, Tweet tweet) {
+        UserGroup group = author.getPosition().getParent();
+        if (group != null) {
+            add(group, tweet.getBody());
+        }
+    }
+
+    /** Counts a text posted by a user directly in the group. */
+    public void add(UserGroup group, String text) {
+        if (isApproximate()) {
+            HyperLogLog sketch = sketches.computeIfAbsent(group, key -> new HyperLogLog(relativeError));
+            synchronized (sketch) {
+                sketch.add(text);
+            }
+        } else {
+            exactTexts.computeIfAbsent(group, key -> ConcurrentHashMap.newKeySet()).add(text);
+        }
+    }
+
+    /** Returns the number of different texts posted by users anywhere under the group, or an estimate of it. */
+    public long count(UserGroup group) {
+        if (isApproximate()) {
+            HyperLogLog merged = new HyperLogLog(relativeError);
+            for (UserGroup member : groupsUnder(group)) {
+                HyperLogLog sketch = sketches.get(member);
+                if (sketch != null) {
+                    synchronized (sketch) {
+                        merged.merge(sketch);
+                    }
+                }
+            }
+            return merged.estimate();
+        }
+        Set<String> union = new HashSet<>();
+        for (UserGroup member : groupsUnder(group)) {
+            Set<String> texts = exactTexts.get(member);
+            if (texts != null) {
+                union.addAll(texts);
+            }
+        }
+        return union.size();
+    }
+
+    // Returns the group and every group under it, walked without recursion so deep trees cannot overflow the stack.
+    private static List<UserGroup> groupsUnder(UserGroup group) {
+        List<UserGroup> groups = new ArrayList<>();
+        Deque<UserGroup> pending = new ArrayDeque<>();
+        pending.push(group);
+        while (!pending.isEmpty()) {
+            UserGroup next = pending.pop();
+            groups.add(next);
+            for (int i = 0; i < next.getMemberCount(); i++) {
+                UserInterface member = next.getMember(i);
+                if (member instanceof UserGroup) {
+                    pending.push((UserGroup) member);
+                }
+            }
+        }
+        return groups;
+    }
+}
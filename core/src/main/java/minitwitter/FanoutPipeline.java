@@ -0,0 +1,204 @@
+package minitwitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FanoutPipeline delivers pushed tweets to followers in the background, so posting a tweet does not wait for
+ * every follower's feed to be updated. Deliveries are queued in a separate inbox per follower, and each inbox
+ * is drained by at most one worker at a time, which applies everything queued so far in one batch. Because an
+ * author queues its tweets in posting order and an inbox is drained in order, every follower receives an
+ * author's tweets in the order they were posted. An inbox is forgotten once it has been drained empty, so only
+ * followers with deliveries on the way are held on to.
+ */
+public class FanoutPipeline {
+    private static final int MAX_BATCH = 256; // Most deliveries applied to one follower per drain
+
+    private final ExecutorService executor;
+    private final Map<User, Inbox> inboxes;
+    private final AtomicLong queueDepth; // Deliveries queued but not yet applied
+    private final Object idle; // Notified whenever queueDepth drops to zero
+    private final AtomicLong peakQueueDepth;
+    private final AtomicLong deliveredCount;
+    private final AtomicLong batchCount;
+
+    /** Constructs a pipeline that drains inboxes on one daemon thread per available processor. */
+    public FanoutPipeline() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Constructs a pipeline that drains inboxes on the given number of daemon threads. */
+    public FanoutPipeline(int threads) {
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "fanout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.inboxes = new ConcurrentHashMap<>();
+        this.queueDepth = new AtomicLong();
+        this.idle = new Object();
+        this.peakQueueDepth = new AtomicLong();
+        this.deliveredCount = new AtomicLong();
+        this.batchCount = new AtomicLong();
+    }
+
+    /**
+     * Queues the tweet for delivery to each of the recipients, and returns a future that completes once every
+     * recipient has it in their feed. An author must submit its tweets in posting order.
+     */
+    public CompletableFuture<Tweet> submit(Tweet tweet, List<User> recipients) {
+        if (recipients.isEmpty()) {
+            return CompletableFuture.completedFuture(tweet);
+        }
+        Delivery delivery = new Delivery(tweet, recipients.size());
+        long depth = queueDepth.addAndGet(recipients.size());
+        peakQueueDepth.accumulateAndGet(depth, Math::max);
+        for (User recipient : recipients) {
+            // Queued while the map entry is locked, so an inbox is never dropped with a delivery in it
+            Inbox inbox = inboxes.compute(recipient, (user, existing) -> {
+                Inbox target = (existing != null) ? existing : new Inbox(user);
+                target.queue.add(delivery);
+                return target;
+            });
+            inbox.schedule();
+        }
+        return delivery.future;
+    }
+
+    /** Returns the number of deliveries that have been queued but not yet applied. */
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /** Waits until every delivery queued so far has been applied or has failed. */
+    public void awaitIdle() throws InterruptedException {
+        synchronized (idle) {
+            while (queueDepth.get() > 0) {
+                idle.wait();
+            }
+        }
+    }
+
+    /** Returns the highest queue depth seen so far. */
+    public long getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    /** Returns the number of deliveries applied so far. */
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    /** Returns the number of batches applied so far; delivered count divided by this is the mean batch size. */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /** Stops the worker threads. Deliveries still queued are dropped. */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** One tweet on its way to a number of followers. */
+    private static class Delivery {
+        private final Tweet tweet;
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Tweet> future;
+        private final long submitted; // System.nanoTime() when the tweet was queued
+
+        Delivery(Tweet tweet, int recipients) {
+            this.tweet = tweet;
+            this.remaining = new AtomicInteger(recipients);
+            this.future = new CompletableFuture<>();
+            this.submitted = System.nanoTime();
+        }
+
+        void delivered() {
+            if (remaining.decrementAndGet() == 0) {
+                Metrics.getInstance().deliveryRecorded(System.nanoTime() - submitted);
+                future.complete(tweet);
+            }
+        }
+
+        void failed(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    /** The deliveries queued for one follower. */
+    private class Inbox {
+        private final User follower;
+        private final Queue<Delivery> queue;
+        private final AtomicBoolean scheduled; // Whether a drain is queued or running
+
+        Inbox(User follower) {
+            this.follower = follower;
+            this.queue = new ConcurrentLinkedQueue<>();
+            this.scheduled = new AtomicBoolean();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            List<Delivery> batch = new ArrayList<>();
+            Delivery delivery;
+            while (batch.size() < MAX_BATCH && (delivery = queue.poll()) != null) {
+                batch.add(delivery);
+            }
+            try {
+                List<Tweet> tweets = new ArrayList<>(batch.size());
+                for (Delivery queued : batch) {
+                    tweets.add(queued.tweet);
+                }
+                follower.receive(tweets);
+                deliveredCount.addAndGet(batch.size());
+                batchCount.incrementAndGet();
+                for (Delivery queued : batch) {
+                    queued.delivered();
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Could not deliver tweets to " + follower.getName() + ": " + e);
+                for (Delivery queued : batch) {
+                    queued.failed(e);
+                }
+            } finally {
+                if (queueDepth.addAndGet(-batch.size()) == 0) {
+                    synchronized (idle) {
+                        idle.notifyAll();
+                    }
+                }
+                finishDrain();
+            }
+        }
+
+        // Forgets the inbox if nothing more was queued; otherwise lets it be drained again. The inbox is removed
+        // while this drain still holds it, so no other drain of it can be running, and it stays marked as
+        // scheduled, so a submitter still holding it after its delivery went out in this batch does nothing.
+        private void finishDrain() {
+            Inbox remaining = inboxes.computeIfPresent(follower,
+                    (user, inbox) -> (inbox == this && inbox.queue.isEmpty()) ? null : inbox);
+            if (remaining != this) {
+                return;
+            }
+            scheduled.set(false);
+            // A delivery queued after the last poll but before the flag was cleared would otherwise wait forever
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
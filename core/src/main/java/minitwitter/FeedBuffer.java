@@ -0,0 +1,112 @@
+package minitwitter;
+
+import java.util.Arrays;
+
+/**
+ * FeedBuffer is a bounded, sorted ring buffer of tweet IDs, used for news feeds and pulled timelines. Once it
+ * holds its capacity, adding a newer ID evicts the oldest one, so the memory a feed uses stays bounded no
+ * matter how many tweets pass through it. Because IDs are kept sorted, a tweet ID also works as a read cursor,
+ * and reads find their starting point with a binary search.
+ */
+public class FeedBuffer {
+    private final int capacity;
+    private int[] ids; // Ring of IDs, grown on demand up to the capacity
+    private int head; // Slot of the oldest ID
+    private int size;
+
+    /** Constructs an empty buffer that holds at most the given number of IDs. */
+    public FeedBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.ids = new int[Math.min(capacity, 8)];
+    }
+
+    /**
+     * Adds the ID at its sorted position, evicting the oldest ID if the buffer is full. An ID older than
+     * everything in a full buffer is dropped instead.
+     */
+    public void insertSorted(int id) {
+        if (size == capacity) {
+            if (id < get(0)) {
+                return;
+            }
+            head = (head + 1) % ids.length;
+            size--;
+        } else if (size == ids.length) {
+            grow();
+        }
+        int position = size;
+        while (position > 0 && get(position - 1) > id) {
+            set(position, get(position - 1));
+            position--;
+        }
+        set(position, id);
+        size++;
+    }
+
+    /** Returns the ID at the given position, where 0 is the oldest. */
+    public int get(int position) {
+        if (position >= size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+        return ids[(head + position) % ids.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Returns up to max of the oldest IDs that are greater than the cursor, oldest first. */
+    public int[] after(int cursor, int max) {
+        int from = firstGreaterThan(cursor);
+        return copy(from, (int) Math.min(size, (long) from + max));
+    }
+
+    /** Returns up to max of the newest IDs that are at least the floor, oldest first. */
+    public int[] latest(int floor, int max) {
+        int from = Math.max(firstGreaterThan(floor - 1), size - max);
+        return copy(from, size);
+    }
+
+    // Returns the position of the first ID greater than the given one, or size if there is none.
+    private int firstGreaterThan(int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid) <= id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int[] copy(int from, int to) {
+        int[] copy = new int[Math.max(0, to - from)];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = get(from + i);
+        }
+        return copy;
+    }
+
+    private void set(int position, int id) {
+        ids[(head + position) % ids.length] = id;
+    }
+
+    private void grow() {
+        int[] grown = new int[(int) Math.min(capacity, ids.length * 2L)];
+        for (int i = 0; i < size; i++) {
+            grown[i] = get(i);
+        }
+        ids = grown;
+        head = 0;
+    }
+}
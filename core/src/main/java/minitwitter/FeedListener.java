@@ -0,0 +1,15 @@
+package minitwitter;
+
+import java.util.List;
+
+/**
+ * Listener interface for anything that shows a user's news feed, such as the UserView. Listeners are registered
+ * with User.addFeedListener() and are told about new tweets as they reach the feed, whether they were posted
+ * by the user, pushed to it, or posted by a followed user whose tweets are pulled. Listeners are called on the
+ * thread that posted or delivered the tweets, so UI listeners must hand the work over to the event thread.
+ */
+public interface FeedListener {
+
+    /** Called after the tweets have been added to the user's feed. */
+    void tweetsAdded(User user, List<Tweet> tweets);
+}
@@ -0,0 +1,34 @@
+package minitwitter;
+
+import java.util.List;
+
+/**
+ * FeedPage is one page of a news feed read with User.getTweets(sinceCursor, limit). It holds the tweets in
+ * posting order, and the cursor to pass in to read the page after it.
+ */
+public class FeedPage {
+    private final List<Tweet> tweets;
+    private final int nextCursor;
+    private final boolean hasMore;
+
+    /** Constructs a page of tweets with the cursor for the next page. */
+    public FeedPage(List<Tweet> tweets, int nextCursor, boolean hasMore) {
+        this.tweets = tweets;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Tweet> getTweets() {
+        return tweets;
+    }
+
+    /** Returns the cursor that reads the tweets after this page; it is unchanged if the page is empty. */
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    /** Returns whether more tweets were already in the feed after this page when it was read. */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,71 @@
+package minitwitter;
+
+/**
+ * FollowGraph is a read-only copy of the follow graph in compressed sparse row form: the users are numbered by
+ * their UserRegistry index, and the indexes of the users each one follows sit together in a single int array,
+ * at the offsets given for it in a second array. Graph algorithms can walk it without locks or object lookups,
+ * using two ints per user and one per follow. It is taken from the live graph with build(), and does not see
+ * users or follows added after that.
+ */
+public class FollowGraph {
+    private final int[] offsets; // Where the followings of each user start in targets; one more entry than users
+    private final int[] targets;
+    private final long builtAt;
+
+    private FollowGraph(int[] offsets, int[] targets, long builtAt) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.builtAt = builtAt;
+    }
+
+    /** Copies the follow graph of every registered user. */
+    public static FollowGraph build() {
+        UserRegistry registry = UserRegistry.getInstance();
+        int userCount = registry.size();
+        int[][] followings = new int[userCount][];
+        long edgeCount = 0;
+        for (int i = 0; i < userCount; i++) {
+            followings[i] = registry.get(i).getFollowingIndexes();
+            edgeCount += followings[i].length;
+        }
+        if (edgeCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many follows for one graph: " + edgeCount);
+        }
+        int[] offsets = new int[userCount + 1];
+        int[] targets = new int[(int) edgeCount];
+        int edge = 0;
+        for (int i = 0; i < userCount; i++) {
+            offsets[i] = edge;
+            System.arraycopy(followings[i], 0, targets, edge, followings[i].length);
+            edge += followings[i].length;
+            followings[i] = null; // Lets each copy go as soon as it has been packed
+        }
+        offsets[userCount] = edge;
+        return new FollowGraph(offsets, targets, System.currentTimeMillis());
+    }
+
+    /** Returns the number of users in the graph. */
+    public int getUserCount() {
+        return offsets.length - 1;
+    }
+
+    /** Returns the number of follows in the graph. */
+    public int getFollowCount() {
+        return targets.length;
+    }
+
+    /** Returns the time in milliseconds at which the graph was copied. */
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    /** Returns the number of users the user with the given index follows, or 0 if it joined after the copy. */
+    public int getFollowingCount(int user) {
+        return user < getUserCount() ? offsets[user + 1] - offsets[user] : 0;
+    }
+
+    /** Returns the index of the user's i-th following, in the order they were followed. */
+    public int getFollowing(int user, int i) {
+        return targets[offsets[user] + i];
+    }
+}
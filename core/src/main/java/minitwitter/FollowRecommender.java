@@ -0,0 +1,172 @@
+package minitwitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * FollowRecommender suggests users to follow, working on a FollowGraph copied from the live graph. The first
+ * copy is taken in the background as soon as the recommender is constructed, and then refreshed every minute, so
+ * requests never wait for a copy. Until the first one is ready they return no suggestions, and a request from a
+ * user who joined after the latest copy brings the next refresh forward. Two jobs are offered, both run in parallel on the common fork-join pool and stopped once
+ * their time budget is spent, so they answer in bounded time on graphs with millions of users:
+ *
+ * Friends of friends scores each user by how many of the reader's followings follow it. Random walks start at
+ * the reader, follow a random following at each step and jump back to the reader with a fixed probability, and
+ * score each user by how often they reach it, a Monte Carlo estimate of its personalized PageRank.
+ *
+ * Users the reader already follows, the reader itself and users outside the engine are never suggested.
+ */
+public class FollowRecommender {
+    private static final long REFRESH_SECONDS = 60;
+    private static final long TIME_BUDGET_MILLIS = 50;
+    private static final double RESTART_PROBABILITY = 0.15;
+    private static final int STEPS_PER_CHECK = 1024; // Walk steps taken between two reads of the clock
+
+    private final UserDirectory userDirectory;
+    private volatile FollowGraph graph; // Null until the first copy is ready
+    private final ScheduledExecutorService refresher;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean(); // Whether an early refresh is waiting to run
+
+    /** Constructs a recommender and starts copying the follow graph in the background. */
+    public FollowRecommender(UserDirectory userDirectory) {
+        this.userDirectory = userDirectory;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "follow-graph");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, 0, REFRESH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Returns up to limit users followed by the most of the user's followings, highest score first. */
+    public List<Recommendation> friendsOfFriends(User user, int limit) {
+        FollowGraph graph = getGraph(user);
+        if (graph == null) {
+            return Collections.emptyList();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIME_BUDGET_MILLIS);
+        int reader = user.getIndex();
+        Counts counts = IntStream.range(0, graph.getFollowingCount(reader)).parallel().collect(Counts::new, (partial, i) -> {
+            if (System.nanoTime() < deadline) {
+                int following = graph.getFollowing(reader, i);
+                for (int j = 0; j < graph.getFollowingCount(following); j++) {
+                    partial.add(graph.getFollowing(following, j), 1);
+                }
+            }
+        }, Counts::addAll);
+        return top(counts, user, limit);
+    }
+
+    /** Returns up to limit users most often reached by random walks from the user, highest score first. */
+    public List<Recommendation> randomWalk(User user, int limit) {
+        FollowGraph graph = getGraph(user);
+        if (graph == null) {
+            return Collections.emptyList();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIME_BUDGET_MILLIS);
+        int reader = user.getIndex();
+        if (graph.getFollowingCount(reader) == 0) {
+            return Collections.emptyList();
+        }
+        int walkers = Runtime.getRuntime().availableProcessors();
+        Counts counts = IntStream.range(0, walkers).parallel().collect(Counts::new, (partial, walker) -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int current = reader;
+            while (System.nanoTime() < deadline) {
+                for (int step = 0; step < STEPS_PER_CHECK; step++) {
+                    int degree = graph.getFollowingCount(current);
+                    if (degree == 0 || random.nextDouble() < RESTART_PROBABILITY) {
+                        current = reader;
+                    } else {
+                        current = graph.getFollowing(current, random.nextInt(degree));
+                        partial.add(current, 1);
+                    }
+                }
+            }
+        }, Counts::addAll);
+        return top(counts, user, limit);
+    }
+
+    /** Stops refreshing the graph. */
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    // Returns the latest copy of the graph, or null while the first one is being taken. If the user joined after
+    // the copy was taken, a refresh is queued so the next request sees it.
+    private FollowGraph getGraph(User user) {
+        FollowGraph current = graph;
+        if (current != null && user.getIndex() >= current.getUserCount() && refreshQueued.compareAndSet(false, true)) {
+            try {
+                refresher.execute(this::refresh);
+            } catch (RejectedExecutionException e) {
+                // The recommender has been closed
+            }
+        }
+        return current;
+    }
+
+    private void refresh() {
+        refreshQueued.set(false);
+        graph = FollowGraph.build();
+    }
+
+    // Returns the limit users with the highest counts that the reader could follow, highest first.
+    private List<Recommendation> top(Counts counts, User reader, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<Recommendation> top = new PriorityQueue<>((a, b) -> Integer.compare(a.getScore(), b.getScore()));
+        UserRegistry registry = UserRegistry.getInstance();
+        for (int position = 0; position < counts.users.size(); position++) {
+            int score = counts.counts[position];
+            if (top.size() == limit && score <= top.peek().getScore()) {
+                continue;
+            }
+            User candidate = registry.get(counts.users.get(position));
+            if (candidate != reader && !reader.isFollowing(candidate) && userDirectory.findById(candidate.getId()) == candidate) {
+                top.add(new Recommendation(candidate, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Recommendation> recommendations = new ArrayList<>(top);
+        recommendations.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
+        return recommendations;
+    }
+
+    // Scores per user index: the IntHashSet gives each user a position, and the score is kept at that position.
+    private static class Counts {
+        private final IntHashSet users = new IntHashSet();
+        private int[] counts = new int[4];
+
+        void add(int user, int count) {
+            int position = users.indexOf(user);
+            if (position < 0) {
+                users.add(user);
+                position = users.size() - 1;
+                if (position == counts.length) {
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                }
+            }
+            counts[position] += count;
+        }
+
+        void addAll(Counts other) {
+            for (int position = 0; position < other.users.size(); position++) {
+                add(other.users.get(position), other.counts[position]);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package minitwitter;
+
+/**
+ * FsyncPolicy decides when the WriteAheadLog forces what it has written out to the disk.
+ */
+public enum FsyncPolicy {
+    /** Every operation waits until its record is on disk. Concurrent operations share one fsync. */
+    ALWAYS,
+
+    /** Records are written as operations happen and forced to disk by a background thread at a fixed interval. */
+    INTERVAL,
+
+    /** Records are written as operations happen and the operating system decides when they reach the disk. */
+    NEVER
+}
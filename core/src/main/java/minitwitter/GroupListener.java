@@ -0,0 +1,13 @@
+package minitwitter;
+
+/**
+ * Listener interface for anything that shows the group tree, such as the UserTreeModel. Listeners are registered
+ * with MiniTwitterEngine.addGroupListener() and are told about each user or group added to a group, in the order
+ * they were added. Listeners are called on the thread that added the member while the tree is locked, so they
+ * must return quickly, and UI listeners must hand the work over to the event thread.
+ */
+public interface GroupListener {
+
+    /** Called after the member has been added to the group at the given index. */
+    void memberAdded(UserGroup group, UserInterface member, int index);
+}
@@ -0,0 +1,110 @@
+package minitwitter;
+
+/**
+ * HyperLogLog estimates how many distinct strings it has been given, in a fixed amount of memory picked from the
+ * error wanted: about (1.04 / error)^2 bytes, so 2,704 bytes, rounded up to 4 KB, for a 2% error. Each string is
+ * hashed to 64 bits; the first bits choose a register, and the register keeps the longest run of leading zeros
+ * seen in the remaining bits. Two sketches of the same precision can be merged by taking the larger of each pair
+ * of registers, which gives the sketch of the union, so sketches of separate groups can be combined into the
+ * sketch of a whole subtree.
+ */
+public class HyperLogLog {
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /** Constructs an empty sketch whose estimates have about the given relative standard error, such as 0.02. */
+    public HyperLogLog(double relativeError) {
+        this(precisionFor(relativeError));
+    }
+
+    private HyperLogLog(int precision) {
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    // Returns the smallest precision whose standard error, 1.04 / sqrt(2^precision), is within the given error.
+    private static int precisionFor(double relativeError) {
+        if (relativeError <= 0 || relativeError >= 1) {
+            throw new IllegalArgumentException("The error must be between 0 and 1");
+        }
+        double registers = Math.pow(1.04 / relativeError, 2);
+        int precision = (int) Math.ceil(Math.log(registers) / Math.log(2));
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    /** Adds a string. */
+    public void add(String value) {
+        long hash = hash(value);
+        int register = (int) (hash >>> (64 - precision));
+        int zeros = Long.numberOfLeadingZeros(hash << precision) + 1;
+        byte rank = (byte) Math.min(zeros, 64 - precision + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /** Adds everything another sketch of the same precision has seen to this one. */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Only sketches of the same precision can be merged");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /** Returns the estimated number of distinct strings added. */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int emptyRegisters = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                emptyRegisters++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        // While many registers are still empty, counting them is more accurate than the harmonic mean
+        if (estimate <= 2.5 * m && emptyRegisters > 0) {
+            estimate = m * Math.log((double) m / emptyRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    /** Returns the relative standard error of the estimates. */
+    public double getRelativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    private static double alpha(int m) {
+        if (m == 16) {
+            return 0.673;
+        } else if (m == 32) {
+            return 0.697;
+        } else if (m == 64) {
+            return 0.709;
+        }
+        return 0.7213 / (1 + 1.079 / m);
+    }
+
+    // A 64-bit FNV-1a hash of the characters, finished with the MurmurHash3 mixer so every bit is well spread.
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE1A85EC5L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,99 @@
+package minitwitter;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * IdGenerator hands out 64-bit IDs for users and groups that are ordered by creation time. Each ID holds the
+ * milliseconds since 2024-01-01 in its top 41 bits, a worker number in the next 10 and a sequence number in the
+ * low 12, in the manner of Snowflake IDs. Every thread claims a worker number the first time it asks for an ID
+ * and keeps its own sequence, so threads creating users in bulk contend for no lock and share no random number
+ * source.
+ *
+ * The number of a thread that has died is handed on to the next thread that needs one, together with the time
+ * and sequence it had reached, so a worker never issues the same ID twice however many threads come and go.
+ * Only while all 1024 numbers belong to live threads does a new thread share one, taking turns on its lock.
+ */
+public final class IdGenerator {
+    private static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final Worker[] claimed = new Worker[1 << WORKER_BITS]; // Guarded by the class lock
+    private static int nextShared; // Worker a thread shares when every number is taken; guarded by the class lock
+    private static volatile long minMillis; // Time after the newest restored ID, which new IDs must not go below
+    private static final ThreadLocal<Worker> workers = ThreadLocal.withInitial(IdGenerator::claimWorker);
+
+    // A worker number, the thread that holds it, and the time and sequence of its last ID.
+    private static class Worker {
+        private final long number;
+        private WeakReference<Thread> owner; // Guarded by the IdGenerator class lock
+        private long lastMillis; // Guarded by this worker
+        private long sequence;
+
+        Worker(long number) {
+            this.number = number;
+        }
+    }
+
+    private IdGenerator() {
+    }
+
+    /**
+     * Returns a new ID. Within one worker IDs always increase: if the clock goes back, the worker keeps using
+     * the last time it saw, and once it has used up a millisecond's sequence numbers it moves on to the next
+     * millisecond rather than waiting for it. IDs never go below the time set by advancePast.
+     */
+    public static long nextId() {
+        Worker worker = workers.get();
+        long millis = Math.max(System.currentTimeMillis() - EPOCH, minMillis);
+        synchronized (worker) {
+            if (millis > worker.lastMillis) {
+                worker.lastMillis = millis;
+                worker.sequence = 0;
+            } else if (++worker.sequence > SEQUENCE_MASK) {
+                worker.lastMillis++;
+                worker.sequence = 0;
+            }
+            return (worker.lastMillis << (WORKER_BITS + SEQUENCE_BITS)) | (worker.number << SEQUENCE_BITS)
+                    | worker.sequence;
+        }
+    }
+
+    /**
+     * Makes every later ID newer than the given one. Called for each ID restored from a snapshot or log, since
+     * IDs issued just before a restart may have been taken from milliseconds the clock has not reached yet.
+     */
+    public static synchronized void advancePast(long id) {
+        long millis = (id >>> (WORKER_BITS + SEQUENCE_BITS)) + 1;
+        if (millis > minMillis) {
+            minMillis = millis;
+        }
+    }
+
+    /** Returns the creation time, in milliseconds since 1970, held in an ID. */
+    public static long getTime(long id) {
+        return (id >>> (WORKER_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    // Gives the calling thread a number no one has used, or else the number of a thread that has died, or else,
+    // while every number belongs to a live thread, a number to share.
+    private static synchronized Worker claimWorker() {
+        Worker reusable = null;
+        for (int number = 0; number < claimed.length && reusable == null; number++) {
+            Worker worker = claimed[number];
+            Thread owner = (worker != null) ? worker.owner.get() : null;
+            if (worker == null) {
+                reusable = claimed[number] = new Worker(number);
+            } else if (owner == null || !owner.isAlive()) {
+                reusable = worker;
+            }
+        }
+        if (reusable == null) {
+            reusable = claimed[nextShared];
+            nextShared = (nextShared + 1) % claimed.length;
+        }
+        reusable.owner = new WeakReference<>(Thread.currentThread());
+        return reusable;
+    }
+}
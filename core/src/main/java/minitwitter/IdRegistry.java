@@ -0,0 +1,45 @@
+package minitwitter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IdRegistry holds the ID of every user and group and refuses to register an ID twice, so IDs are known to be
+ * unique as soon as each user or group is created and never need to be checked by walking the tree. The
+ * registry is implemented with a Singleton Pattern, since every user and group shares it.
+ */
+public class IdRegistry {
+    private static final IdRegistry instance = new IdRegistry(); // Singleton instance
+
+    private Set<Long> ids;
+
+    private IdRegistry() {
+        this.ids = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Gets the single instance of IdRegistry.
+     *
+     * @return single instance of IdRegistry
+     */
+    public static IdRegistry getInstance() {
+        return instance;
+    }
+
+    /** Registers the ID of a new or restored user or group, and throws if it is already taken. */
+    public void register(long id) {
+        if (!ids.add(id)) {
+            throw new IllegalArgumentException("Duplicate ID " + id);
+        }
+    }
+
+    /** Returns whether the ID is registered. */
+    public boolean contains(long id) {
+        return ids.contains(id);
+    }
+
+    /** Returns the number of registered IDs. */
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,128 @@
+package minitwitter;
+
+import java.util.Arrays;
+
+/**
+ * IntHashSet is a set of primitive ints that remembers insertion order. Values are kept in a dense array in the
+ * order they were added. Small sets are searched by scanning that array, which is as fast as hashing for a few
+ * dozen ints and takes only 4 to 6 bytes per value. Larger sets add an open-addressing hash table of positions
+ * into the array, filled to between three eighths and three quarters, so add() and contains() stay constant
+ * time at 9 to 17 bytes per value. Values cannot be removed, which keeps positions stable, so position i can be
+ * used to look up data kept alongside the set.
+ */
+public class IntHashSet {
+    private static final int EMPTY = -1;
+    private static final int MAX_SCANNED = 32; // Largest set searched without a hash table
+    private static final int[] NO_VALUES = new int[0];
+
+    private int[] values; // Values in insertion order
+    private int[] table; // Positions into values or EMPTY, in a power-of-two length; null while the set is small
+    private int size;
+
+    /** Constructs an empty set. */
+    public IntHashSet() {
+        this(0);
+    }
+
+    /** Constructs an empty set with room for the expected number of values before it needs to grow. */
+    public IntHashSet(int expectedSize) {
+        this.values = expectedSize > 0 ? new int[expectedSize] : NO_VALUES;
+        if (expectedSize > MAX_SCANNED) {
+            rehash(tableCapacity(expectedSize));
+        }
+    }
+
+    /** Adds the value if it is not already in the set, and returns whether it was added. */
+    public boolean add(int value) {
+        if (indexOf(value) >= 0) {
+            return false;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        }
+        values[size++] = value;
+        if (table != null) {
+            if (size > table.length - (table.length >> 2)) {
+                rehash(table.length * 2);
+            } else {
+                table[emptySlot(value)] = size - 1;
+            }
+        } else if (size > MAX_SCANNED) {
+            rehash(tableCapacity(size));
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /** Returns the value at the given position in insertion order. */
+    public int get(int position) {
+        if (position >= size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+        return values[position];
+    }
+
+    /** Returns the insertion position of the value, or -1 if it is not in the set. */
+    public int indexOf(int value) {
+        if (table == null) {
+            for (int position = 0; position < size; position++) {
+                if (values[position] == value) {
+                    return position;
+                }
+            }
+            return -1;
+        }
+        int mask = table.length - 1;
+        for (int slot = mix(value) & mask; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (values[table[slot]] == value) {
+                return table[slot];
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Returns a copy of the values in insertion order. */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    // Returns the first empty slot on the probe path of a value known not to be in the table.
+    private int emptySlot(int value) {
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Returns the smallest power of two that holds the given number of values at most three quarters full.
+    private static int tableCapacity(int values) {
+        int capacity = Integer.highestOneBit(values);
+        while (capacity - (capacity >> 2) < values) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        for (int position = 0; position < size; position++) {
+            table[emptySlot(values[position])] = position;
+        }
+    }
+
+    // Spreads dense, sequential values across the table.
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,77 @@
+package minitwitter;
+
+import java.util.Arrays;
+
+/**
+ * IntList is a growable list of primitive ints, used for news feeds and timelines so that they hold
+ * tweet IDs without boxing each one into an object.
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    /** Constructs an empty list. */
+    public IntList() {
+        this.values = new int[8];
+    }
+
+    /** Constructs a list holding a copy of the given values. */
+    public IntList(int[] values) {
+        this.values = Arrays.copyOf(values, Math.max(values.length, 8));
+        this.size = values.length;
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1));
+        }
+        values[size++] = value;
+    }
+
+    /** Inserts the value at the given position, shifting later elements along. */
+    public void insert(int index, int value) {
+        if (index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        add(value);
+        System.arraycopy(values, index, values, index + 1, size - 1 - index);
+        values[index] = value;
+    }
+
+    /** Removes the value at the given position, shifting later elements back. */
+    public void remove(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        System.arraycopy(values, index + 1, values, index, size - 1 - index);
+        size--;
+    }
+
+    /**
+     * Searches a sorted list for the value, with the same result as Arrays.binarySearch: the value's position
+     * if it is found, and otherwise (-(insertion point) - 1).
+     */
+    public int binarySearch(int value) {
+        return Arrays.binarySearch(values, 0, size, value);
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns a copy of the values in the list. */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
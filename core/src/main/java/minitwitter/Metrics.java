@@ -0,0 +1,186 @@
+package minitwitter;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Metrics collects runtime measurements of the engine: how often tweets are posted and users followed, how
+ * long posting takes, how many followers each post is pushed to, how long pushed tweets take to reach every
+ * follower, how long analysis passes take and how large feeds are when read. Values go into allocation-free
+ * Histograms, and the metrics are published as a platform MBean. Metrics is implemented with a Singleton
+ * Pattern, since the whole process shares it.
+ */
+public class Metrics implements MetricsMBean {
+    private static final Metrics instance = new Metrics(); // Singleton instance; creating it starts the ticker and MBean
+
+    private final Histogram postLatency = new Histogram(); // Nanoseconds
+    private final Histogram fanout = new Histogram(); // Followers pushed to per post
+    private final Histogram deliveryLatency = new Histogram(); // Nanoseconds
+    private final Histogram analysisDuration = new Histogram(); // Nanoseconds
+    private final Histogram feedSize = new Histogram(); // Tweets in the feed at each read
+    private final LongAdder followCount = new LongAdder();
+    private volatile String largestFanoutUser;
+    private volatile double postsPerSecond;
+    private volatile double followsPerSecond;
+    private long lastPostCount; // Counts at the last tick, touched only by the ticker thread
+    private long lastFollowCount;
+
+    private Metrics() {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("MiniTwitter:type=Metrics"));
+        } catch (JMException e) {
+            System.err.println("Could not publish the metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the single instance of Metrics.
+     *
+     * @return single instance of Metrics
+     */
+    public static Metrics getInstance() {
+        return instance;
+    }
+
+    /** Records a post: how long it took, and how many followers it was pushed to. */
+    public void postRecorded(User author, long nanos, int pushedTo) {
+        postLatency.record(nanos);
+        if (pushedTo > fanout.getMax()) {
+            largestFanoutUser = author.getName();
+        }
+        fanout.record(pushedTo);
+    }
+
+    /** Records how long a pushed tweet took to reach every follower. */
+    public void deliveryRecorded(long nanos) {
+        deliveryLatency.record(nanos);
+    }
+
+    public void followRecorded() {
+        followCount.increment();
+    }
+
+    public void analysisRecorded(long nanos) {
+        analysisDuration.record(nanos);
+    }
+
+    public void feedReadRecorded(int size) {
+        feedSize.record(size);
+    }
+
+    // Turns the counts of the last second into rates.
+    private void tick() {
+        long posts = getPostCount();
+        long follows = getFollowCount();
+        postsPerSecond = posts - lastPostCount;
+        followsPerSecond = follows - lastFollowCount;
+        lastPostCount = posts;
+        lastFollowCount = follows;
+    }
+
+    @Override
+    public long getPostCount() {
+        return postLatency.getCount();
+    }
+
+    @Override
+    public double getPostsPerSecond() {
+        return postsPerSecond;
+    }
+
+    @Override
+    public long getFollowCount() {
+        return followCount.sum();
+    }
+
+    @Override
+    public double getFollowsPerSecond() {
+        return followsPerSecond;
+    }
+
+    @Override
+    public long getPostLatencyP50Micros() {
+        return postLatency.getPercentile(0.5) / 1000;
+    }
+
+    @Override
+    public long getPostLatencyP99Micros() {
+        return postLatency.getPercentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getPostLatencyMaxMicros() {
+        return postLatency.getMax() / 1000;
+    }
+
+    @Override
+    public double getFanoutMean() {
+        return fanout.getMean();
+    }
+
+    @Override
+    public long getFanoutP99() {
+        return fanout.getPercentile(0.99);
+    }
+
+    @Override
+    public long getFanoutMax() {
+        return fanout.getMax();
+    }
+
+    @Override
+    public String getLargestFanoutUser() {
+        return largestFanoutUser;
+    }
+
+    @Override
+    public long getDeliveryLatencyP50Micros() {
+        return deliveryLatency.getPercentile(0.5) / 1000;
+    }
+
+    @Override
+    public long getDeliveryLatencyP99Micros() {
+        return deliveryLatency.getPercentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getDeliveryLatencyMaxMicros() {
+        return deliveryLatency.getMax() / 1000;
+    }
+
+    @Override
+    public long getAnalysisCount() {
+        return analysisDuration.getCount();
+    }
+
+    @Override
+    public long getAnalysisDurationP50Millis() {
+        return analysisDuration.getPercentile(0.5) / 1000000;
+    }
+
+    @Override
+    public long getAnalysisDurationMaxMillis() {
+        return analysisDuration.getMax() / 1000000;
+    }
+
+    @Override
+    public double getFeedSizeMean() {
+        return feedSize.getMean();
+    }
+
+    @Override
+    public long getFeedSizeP99() {
+        return feedSize.getPercentile(0.99);
+    }
+}
@@ -0,0 +1,46 @@
+package minitwitter;
+
+/**
+ * Management interface of the Metrics, published on the platform MBean server as MiniTwitter:type=Metrics so it
+ * can be watched from JConsole or any other JMX client. Latencies are in microseconds, durations in milliseconds.
+ */
+public interface MetricsMBean {
+    long getPostCount();
+
+    double getPostsPerSecond();
+
+    long getFollowCount();
+
+    double getFollowsPerSecond();
+
+    long getPostLatencyP50Micros();
+
+    long getPostLatencyP99Micros();
+
+    long getPostLatencyMaxMicros();
+
+    double getFanoutMean();
+
+    long getFanoutP99();
+
+    long getFanoutMax();
+
+    /** Returns the name of the author whose post reached the most followers, the hottest user seen so far. */
+    String getLargestFanoutUser();
+
+    long getDeliveryLatencyP50Micros();
+
+    long getDeliveryLatencyP99Micros();
+
+    long getDeliveryLatencyMaxMicros();
+
+    long getAnalysisCount();
+
+    long getAnalysisDurationP50Millis();
+
+    long getAnalysisDurationMaxMillis();
+
+    double getFeedSizeMean();
+
+    long getFeedSizeP99();
+}
@@ -0,0 +1,86 @@
+package minitwitter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * MetricsPanel shows the live Metrics of the engine in the admin panel: posting and following rates, post and
+ * delivery latencies, fan-out sizes with the hottest author, analysis durations and feed sizes. It reads the
+ * same figures that are published over JMX, once a second while the panel is showing.
+ */
+public class MetricsPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final Timer timer;
+
+    private JLabel postsLabel;
+    private JLabel postLatencyLabel;
+    private JLabel fanoutLabel;
+    private JLabel hottestUserLabel;
+    private JLabel deliveryLatencyLabel;
+    private JLabel followsLabel;
+    private JLabel analysisLabel;
+    private JLabel feedSizeLabel;
+
+    public MetricsPanel() {
+        super(new GridLayout(0, 1));
+        setBorder(BorderFactory.createTitledBorder("Metrics"));
+
+        postsLabel = addLabel();
+        postLatencyLabel = addLabel();
+        fanoutLabel = addLabel();
+        hottestUserLabel = addLabel();
+        deliveryLatencyLabel = addLabel();
+        followsLabel = addLabel();
+        analysisLabel = addLabel();
+        feedSizeLabel = addLabel();
+        refresh();
+
+        timer = new Timer(REFRESH_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        });
+    }
+
+    /** Starts refreshing once the panel is added to a showing window. */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        timer.start();
+    }
+
+    /** Stops refreshing when the panel is removed or its window disposed, so the timer does not keep it alive. */
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+
+    private JLabel addLabel() {
+        JLabel label = new JLabel();
+        add(label);
+        return label;
+    }
+
+    private void refresh() {
+        Metrics metrics = Metrics.getInstance();
+        postsLabel.setText(String.format("Posts: %d (%.0f/s)", metrics.getPostCount(), metrics.getPostsPerSecond()));
+        postLatencyLabel.setText(String.format("Post latency p50/p99/max: %d/%d/%d us",
+                metrics.getPostLatencyP50Micros(), metrics.getPostLatencyP99Micros(), metrics.getPostLatencyMaxMicros()));
+        fanoutLabel.setText(String.format("Fan-out mean/p99/max: %.1f/%d/%d",
+                metrics.getFanoutMean(), metrics.getFanoutP99(), metrics.getFanoutMax()));
+        String hottestUser = metrics.getLargestFanoutUser();
+        hottestUserLabel.setText("Largest fan-out: " + (hottestUser != null ? hottestUser : "none yet"));
+        deliveryLatencyLabel.setText(String.format("Delivery latency p50/p99/max: %d/%d/%d us",
+                metrics.getDeliveryLatencyP50Micros(), metrics.getDeliveryLatencyP99Micros(), metrics.getDeliveryLatencyMaxMicros()));
+        followsLabel.setText(String.format("Follows: %d (%.0f/s)", metrics.getFollowCount(), metrics.getFollowsPerSecond()));
+        analysisLabel.setText(String.format("Analysis passes: %d, p50/max: %d/%d ms",
+                metrics.getAnalysisCount(), metrics.getAnalysisDurationP50Millis(), metrics.getAnalysisDurationMaxMillis()));
+        feedSizeLabel.setText(String.format("Feed size at read mean/p99: %.0f/%d", metrics.getFeedSizeMean(), metrics.getFeedSizeP99()));
+    }
+}
@@ -1,3 +1,5 @@
+package minitwitter;
+
 public class MiniTwitterDriver {
     public static void main(String[] args) {
         javax.swing.SwingUtilities.invokeLater(new Runnable() {
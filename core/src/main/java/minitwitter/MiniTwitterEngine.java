@@ -0,0 +1,367 @@
+package minitwitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MiniTwitterEngine is the headless core of MiniTwitter. It owns the root group, the user directory, the
+ * statistics, the streaming analytics, the tweet search index, the follow recommender and, when opened with
+ * files, the snapshot and write-ahead log, and offers every operation as a plain method call: creating users
+ * and groups, following, posting, reading feeds, searching tweets, recommending follows and getting statistics.
+ * It uses no AWT or Swing, so it can run without a display and be called from any number of threads. The
+ * AdminControlPanel and UserView are clients of the engine.
+ *
+ * Operations share a read lock and run concurrently; a checkpoint takes the write lock, so it sees the network
+ * at rest. Changes to the group tree are serialized among themselves.
+ *
+ * Only one engine may be open in a process at a time. Users, tweets and IDs live in the process-wide
+ * UserRegistry, TweetStore and IdRegistry, and the engine listens for tweets through the static User listener
+ * list, so a second engine would share the first one's data. Close an engine before constructing another.
+ */
+public class MiniTwitterEngine {
+    private final UserGroup root;
+    private final UserDirectory userDirectory;
+    private final StatisticsService statistics;
+    private final StreamingAnalytics analytics;
+    private final DistinctTweetCounter distinctTweets;
+    private final TweetIndex tweetIndex;
+    private final FollowRecommender recommender;
+    private final Object treeLock = new Object(); // Serializes changes to the group tree
+    private final List<GroupListener> groupListeners = new CopyOnWriteArrayList<>();
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock(); // Write-held while checkpointing
+    private Path snapshotPath;
+    private WriteAheadLog writeAheadLog;
+    private ScheduledExecutorService checkpointer;
+
+    /**
+     * Constructs an engine for a new network that is only kept in memory, and counts distinct tweet texts
+     * exactly.
+     */
+    public MiniTwitterEngine() {
+        this(DistinctTweetCounter.EXACT);
+    }
+
+    /**
+     * Constructs an in-memory engine that counts distinct tweet texts exactly if distinctTweetError is 0, and
+     * otherwise estimates them with about that relative error; see DistinctTweetCounter.
+     */
+    public MiniTwitterEngine(double distinctTweetError) {
+        this(new UserGroup("Root"), null, null, distinctTweetError);
+    }
+
+    private MiniTwitterEngine(UserGroup root, Path snapshotPath, WriteAheadLog writeAheadLog, double distinctTweetError) {
+        this.root = root;
+        this.userDirectory = new UserDirectory();
+        this.statistics = new StatisticsService();
+        this.analytics = new StreamingAnalytics();
+        this.distinctTweets = new DistinctTweetCounter(distinctTweetError);
+        this.snapshotPath = snapshotPath;
+        this.writeAheadLog = writeAheadLog;
+        register(root);
+        this.tweetIndex = new TweetIndex(userDirectory);
+        this.recommender = new FollowRecommender(userDirectory);
+        countRestoredTweets();
+        User.addTweetListener(statistics);
+        User.addTweetListener(analytics);
+        User.addTweetListener(distinctTweets);
+        User.addTweetListener(tweetIndex);
+        if (writeAheadLog != null) {
+            User.setWriteAheadLog(writeAheadLog);
+            TweetStore.getInstance().setWriteAheadLog(writeAheadLog);
+        }
+    }
+
+    /**
+     * Opens a durable engine. The snapshot at snapshotPath is loaded if there is one, the write-ahead log at
+     * logPath is replayed on top of it, and every later change is logged. Every checkpointMinutes minutes,
+     * unless that is 0, a new snapshot is written and the log emptied. This must be called before any user is
+     * created or tweet is posted in this process. Distinct tweet texts are counted exactly.
+     */
+    public static MiniTwitterEngine open(Path snapshotPath, Path logPath, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis,
+            int checkpointMinutes) throws IOException {
+        return open(snapshotPath, logPath, fsyncPolicy, fsyncIntervalMillis, checkpointMinutes, DistinctTweetCounter.EXACT);
+    }
+
+    /**
+     * Opens a durable engine as above, that estimates distinct tweet texts with about the given relative error,
+     * or counts them exactly if it is 0.
+     */
+    public static MiniTwitterEngine open(Path snapshotPath, Path logPath, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis,
+            int checkpointMinutes, double distinctTweetError) throws IOException {
+        UserGroup snapshotRoot = Snapshot.load(snapshotPath);
+        WriteAheadLog log = WriteAheadLog.open(logPath, fsyncPolicy, fsyncIntervalMillis);
+        UserGroup root = log.replay(snapshotRoot);
+        if (root == null) {
+            root = new UserGroup("Root");
+            log.logRoot(root);
+            log.sync();
+        }
+        MiniTwitterEngine engine = new MiniTwitterEngine(root, snapshotPath, log, distinctTweetError);
+        if (checkpointMinutes > 0) {
+            engine.checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            engine.checkpointer.scheduleWithFixedDelay(() -> {
+                try {
+                    engine.checkpoint();
+                } catch (IOException e) {
+                    System.err.println("Could not write a checkpoint: " + e.getMessage());
+                }
+            }, checkpointMinutes, checkpointMinutes, TimeUnit.MINUTES);
+        }
+        return engine;
+    }
+
+    public UserGroup getRoot() {
+        return root;
+    }
+
+    public StatisticsService getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Recounts the statistics with a full analysis pass and returns whether they match the ones kept as the
+     * tree changes; see StatisticsService.matches. Operations wait while the recount runs, so it sees the
+     * network at rest.
+     */
+    public boolean verifyStatistics() {
+        checkpointLock.writeLock().lock();
+        try {
+            return statistics.matches(root);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    /** Returns the posting rates and trending words of the last minute. */
+    public StreamingAnalytics getAnalytics() {
+        return analytics;
+    }
+
+    /** Returns the counts of distinct tweet texts posted under each group. */
+    public DistinctTweetCounter getDistinctTweets() {
+        return distinctTweets;
+    }
+
+    /** Registers a listener that is told about every user and group added from now on. */
+    public void addGroupListener(GroupListener listener) {
+        groupListeners.add(listener);
+    }
+
+    public void removeGroupListener(GroupListener listener) {
+        groupListeners.remove(listener);
+    }
+
+    /** Creates a user in the given group. */
+    public User createUser(String name, UserGroup parent) {
+        checkpointLock.readLock().lock();
+        try {
+            User user;
+            synchronized (treeLock) {
+                user = new User(name);
+                // Counted before anyone can reach it to post, so none of its tweets are counted twice
+                statistics.userAdded(user);
+                parent.add(user);
+                if (writeAheadLog != null) {
+                    writeAheadLog.logAddUser(user, parent);
+                }
+                memberAdded(parent, user);
+            }
+            userDirectory.add(user);
+            sync();
+            return user;
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /** Creates a group in the given group. */
+    public UserGroup createGroup(String name, UserGroup parent) {
+        checkpointLock.readLock().lock();
+        try {
+            UserGroup group;
+            synchronized (treeLock) {
+                group = new UserGroup(name);
+                parent.add(group);
+                if (writeAheadLog != null) {
+                    writeAheadLog.logAddGroup(group, parent);
+                }
+                memberAdded(parent, group);
+            }
+            statistics.userGroupAdded(group);
+            sync();
+            return group;
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /** Returns the user with the given ID, or null if there is none. */
+    public User findUserById(long id) {
+        return userDirectory.findById(id);
+    }
+
+    /** Returns the user with the given name, or null if there is none. */
+    public User findUserByName(String name) {
+        return userDirectory.findByName(name);
+    }
+
+    /** Returns up to limit user names that start with the given prefix, in alphabetical order. */
+    public List<String> findUserNamesByPrefix(String prefix, int limit) {
+        return userDirectory.findNamesByPrefix(prefix, limit);
+    }
+
+    /** Makes the follower follow the followee. */
+    public void follow(User follower, User followee) {
+        checkpointLock.readLock().lock();
+        try {
+            follower.follow(followee);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /** Posts a tweet; the future completes once it has been delivered to every follower. */
+    public CompletableFuture<Tweet> post(User author, String message) {
+        checkpointLock.readLock().lock();
+        try {
+            return author.postTweet(message);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /** Reads the page of the user's feed after the cursor; see User.getTweets(int, int). */
+    public FeedPage readFeed(User user, int sinceCursor, int limit) {
+        return user.getTweets(sinceCursor, limit);
+    }
+
+    /** Returns up to limit of the newest tweets in the user's feed, in posting order. */
+    public List<Tweet> readLatest(User user, int limit) {
+        return user.getLatestTweets(limit);
+    }
+
+    /**
+     * Returns up to limit of the tweets matching the query, newest first, by users under the group if it is not
+     * null; see TweetIndex.search. Pass TweetIndex.NEWEST as the cursor for the first page.
+     */
+    public SearchPage searchTweets(String query, UserGroup group, int cursor, int limit) {
+        return tweetIndex.search(query, group, null, cursor, limit);
+    }
+
+    /** Returns up to limit of the tweets matching the query by the user and the users it follows, newest first. */
+    public SearchPage searchFollowedTweets(String query, User user, int cursor, int limit) {
+        return tweetIndex.search(query, null, user, cursor, limit);
+    }
+
+    /**
+     * Returns up to limit users to suggest the user follows, ranked by random walks over the follow graph; see
+     * FollowRecommender.
+     */
+    public List<Recommendation> recommendFollows(User user, int limit) {
+        return recommender.randomWalk(user, limit);
+    }
+
+    /** Returns up to limit users followed by the most of the user's followings. */
+    public List<Recommendation> recommendFriendsOfFriends(User user, int limit) {
+        return recommender.friendsOfFriends(user, limit);
+    }
+
+    /**
+     * Writes a snapshot and empties the write-ahead log. Operations wait while this runs, and tweets still being
+     * delivered are allowed to arrive first, so the snapshot has every feed whole. Does nothing for an engine
+     * that is only kept in memory.
+     */
+    public void checkpoint() throws IOException {
+        if (writeAheadLog == null) {
+            return;
+        }
+        checkpointLock.writeLock().lock();
+        try {
+            User.getFanoutPipeline().awaitIdle();
+            Snapshot.write(snapshotPath, root);
+            writeAheadLog.reset();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops checkpointing, logging, indexing and refreshing the follow graph, and closes the write-ahead log.
+     */
+    public void close() throws IOException {
+        if (checkpointer != null) {
+            checkpointer.shutdownNow();
+        }
+        recommender.close();
+        User.removeTweetListener(statistics);
+        User.removeTweetListener(analytics);
+        User.removeTweetListener(distinctTweets);
+        User.removeTweetListener(tweetIndex);
+        tweetIndex.close();
+        if (writeAheadLog != null) {
+            User.setWriteAheadLog(null);
+            TweetStore.getInstance().setWriteAheadLog(null);
+            writeAheadLog.close();
+        }
+    }
+
+    // Adds the users and subgroups under a restored group to the directory and statistics.
+    private void register(UserGroup group) {
+        for (UserInterface member : group.getMembers()) {
+            if (member instanceof User) {
+                userDirectory.add((User) member);
+                statistics.userAdded((User) member);
+            } else {
+                statistics.userGroupAdded((UserGroup) member);
+                register((UserGroup) member);
+            }
+        }
+    }
+
+    // Counts the texts of the tweets restored from the snapshot and log, which were posted before the counter
+    // was listening. Tweets of users left from an engine closed earlier in this process are left out.
+    private void countRestoredTweets() {
+        TweetStore store = TweetStore.getInstance();
+        for (int id = 0; id < store.size(); id++) {
+            Tweet tweet = store.get(id);
+            User author = userDirectory.findById(tweet.getAuthorId());
+            if (author != null && author.getPosition().getParent() != null) {
+                distinctTweets.add(author.getPosition().getParent(), tweet.getBody());
+            }
+        }
+    }
+
+    // Tells the group listeners about a member just added; called with the tree locked, so they hear of the
+    // members of a group in order.
+    private void memberAdded(UserGroup parent, UserInterface member) {
+        int index = parent.getMemberCount() - 1;
+        for (GroupListener listener : groupListeners) {
+            listener.memberAdded(parent, member, index);
+        }
+    }
+
+    private void sync() {
+        if (writeAheadLog != null) {
+            try {
+                writeAheadLog.sync();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the write-ahead log", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package minitwitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ParallelAnalysisVisitor gives the same results as the AnalysisVisitor, but splits the tree by subtree and
+ * visits each subgroup in its own fork/join task. Every task collects a partial result in a separate
+ * AnalysisVisitor, and the partial results are merged in member order, so ties for the last updated user
+ * are broken the same way as in a single-threaded pass. StatisticsService.matches() recounts trees of 10,000
+ * users or more with it.
+ */
+public class ParallelAnalysisVisitor extends AnalysisVisitor {
+    private ForkJoinPool pool;
+
+    /** Constructs a visitor that runs its tasks in the common fork/join pool. */
+    public ParallelAnalysisVisitor() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /** Constructs a visitor that runs its tasks in the given pool. */
+    public ParallelAnalysisVisitor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void visit(UserGroup userGroup) {
+        merge(pool.invoke(new GroupTask(userGroup)));
+    }
+
+    /** Visits one group, forking a task for each subgroup and visiting its users directly. */
+    private static class GroupTask extends RecursiveTask<AnalysisVisitor> {
+        private static final long serialVersionUID = 1L;
+
+        private final UserGroup userGroup;
+
+        GroupTask(UserGroup userGroup) {
+            this.userGroup = userGroup;
+        }
+
+        @Override
+        protected AnalysisVisitor compute() {
+            // Partial results in member order: consecutive users share one visitor, each subgroup gets a task
+            List<Object> parts = new ArrayList<>();
+            AnalysisVisitor users = null;
+            for (UserInterface member : userGroup.getMembers()) {
+                if (member instanceof UserGroup) {
+                    GroupTask task = new GroupTask((UserGroup) member);
+                    task.fork();
+                    parts.add(task);
+                    users = null;
+                } else {
+                    if (users == null) {
+                        users = new AnalysisVisitor();
+                        parts.add(users);
+                    }
+                    member.accept(users);
+                }
+            }
+
+            AnalysisVisitor result = new AnalysisVisitor();
+            result.countUserGroup();
+            for (Object part : parts) {
+                if (part instanceof GroupTask) {
+                    result.merge(((GroupTask) part).join());
+                } else {
+                    result.merge((AnalysisVisitor) part);
+                }
+            }
+            return result;
+        }
+    }
+}
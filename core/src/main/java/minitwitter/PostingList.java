@@ -0,0 +1,133 @@
+package minitwitter;
+
+import java.util.Arrays;
+
+/**
+ * PostingList holds the IDs of the tweets that contain one term, in increasing order, compressed into bytes:
+ * the IDs are split into blocks of 128, and within a block each ID after the first is stored as its gap from
+ * the one before, in a variable number of bytes. Tweets are posted in ID order, so gaps are small and most take
+ * one byte. The first ID of every block is kept uncompressed, so a reader can jump to the block holding any ID
+ * with a binary search and decode only that block. IDs must be added in increasing order.
+ *
+ * One thread at a time may add while any number read. Bytes once written are never changed, arrays grow by
+ * copying, and the size is published last, so a reader that reads the size first sees everything below it.
+ */
+public class PostingList {
+    private static final int BLOCK_SIZE = 128;
+
+    private volatile byte[] gaps; // Variable-length gaps between consecutive IDs of the same block
+    private int gapsLength;
+    private volatile int[] blockFirstIds;
+    private volatile int[] blockOffsets; // Where each block's gaps start in gaps
+    private volatile int size; // Written after the ID it counts, so readers see every ID below it
+    private int lastId;
+
+    public PostingList() {
+        this.gaps = new byte[8];
+        this.blockFirstIds = new int[1];
+        this.blockOffsets = new int[1];
+        this.lastId = -1;
+    }
+
+    /** Adds an ID greater than every ID already in the list. */
+    public void add(int id) {
+        if (id <= lastId) {
+            throw new IllegalArgumentException("IDs must be added in increasing order");
+        }
+        if (size % BLOCK_SIZE == 0) {
+            int block = size / BLOCK_SIZE;
+            if (block == blockFirstIds.length) {
+                blockFirstIds = Arrays.copyOf(blockFirstIds, block * 2);
+                blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+            }
+            blockFirstIds[block] = id;
+            blockOffsets[block] = gapsLength;
+        } else {
+            writeGap(id - lastId);
+        }
+        lastId = id;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of bytes the list takes, not counting the object headers. */
+    public long getMemoryUsage() {
+        return gaps.length + 4L * (blockFirstIds.length + blockOffsets.length);
+    }
+
+    /** Returns a cursor that reads the list from its newest ID down. */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeGap(int gap) {
+        if (gapsLength + 5 > gaps.length) {
+            gaps = Arrays.copyOf(gaps, Math.max(gaps.length * 2, gapsLength + 5));
+        }
+        while ((gap & ~0x7F) != 0) {
+            gaps[gapsLength++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        gaps[gapsLength++] = (byte) gap;
+    }
+
+    /**
+     * Cursor reads the IDs of a PostingList at or below a bound that only goes down, keeping the block it last
+     * decoded so walking the list newest first decodes every block once. A cursor sees the IDs that were in the
+     * list when it was made, and needs no lock while IDs are added.
+     */
+    public class Cursor {
+        private final int visibleSize = size; // IDs in the list when the cursor was made
+        private final int[] decoded = new int[BLOCK_SIZE];
+        private int decodedBlock = -1;
+        private int decodedSize;
+
+        /** Returns the greatest ID in the list that is at most max, or -1 if there is none. */
+        public int floor(int max) {
+            if (visibleSize == 0 || max < blockFirstIds[0]) {
+                return -1;
+            }
+            int block = blockOf(max);
+            if (block != decodedBlock) {
+                decode(block);
+            }
+            int position = Arrays.binarySearch(decoded, 0, decodedSize, max);
+            return position >= 0 ? decoded[position] : decoded[-position - 2];
+        }
+
+        // Returns the last block whose first ID is at most max.
+        private int blockOf(int max) {
+            int blocks = (visibleSize + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int position = Arrays.binarySearch(blockFirstIds, 0, blocks, max);
+            return position >= 0 ? position : -position - 2;
+        }
+
+        private int blockSize(int block) {
+            return Math.min(BLOCK_SIZE, visibleSize - block * BLOCK_SIZE);
+        }
+
+        private void decode(int block) {
+            decodedBlock = block;
+            decodedSize = blockSize(block);
+            int offset = blockOffsets[block];
+            int id = blockFirstIds[block];
+            byte[] bytes = gaps;
+            decoded[0] = id;
+            for (int i = 1; i < decodedSize; i++) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[offset++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                id += gap;
+                decoded[i] = id;
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package minitwitter;
+
+/**
+ * Recommendation is one user suggested to follow by the FollowRecommender, with the score that ranked it: the
+ * number of followed users who follow it, or the number of times random walks from the reader reached it.
+ */
+public class Recommendation {
+    private final User user;
+    private final int score;
+
+    public Recommendation(User user, int score) {
+        this.user = user;
+        this.score = score;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return user.getName() + " (" + score + ")";
+    }
+}
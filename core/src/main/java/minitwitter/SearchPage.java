@@ -0,0 +1,35 @@
+package minitwitter;
+
+import java.util.List;
+
+/**
+ * SearchPage is one page of the tweets matching a search, newest first, with the cursor to pass in to read the
+ * older matches after it.
+ */
+public class SearchPage {
+    private final List<Tweet> tweets;
+    private final int nextCursor;
+    private final boolean hasMore;
+
+    /** Constructs a page of matching tweets with the cursor for the next page. */
+    public SearchPage(List<Tweet> tweets, int nextCursor, boolean hasMore) {
+        this.tweets = tweets;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /** Returns the matching tweets, newest first. */
+    public List<Tweet> getTweets() {
+        return tweets;
+    }
+
+    /** Returns the cursor that reads the older matches after this page. */
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    /** Returns whether older tweets remain to be searched after this page. */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,61 @@
+package minitwitter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.function.IntFunction;
+
+/**
+ * SearchResultsDialog shows the tweets matching a search, newest first, one page at a time. The first page is
+ * shown when the dialog opens, and the "Older" button adds the next page below it until there are no more.
+ */
+public class SearchResultsDialog extends JDialog {
+    private static final long serialVersionUID = 1L;
+
+    private MiniTwitterEngine engine;
+    private IntFunction<SearchPage> pages; // Reads the page after a cursor
+    private DefaultListModel<String> resultModel;
+    private JButton olderButton;
+    private JLabel statusLabel;
+    private int cursor;
+
+    public SearchResultsDialog(Window owner, MiniTwitterEngine engine, String title, IntFunction<SearchPage> pages) {
+        super(owner, title);
+        this.engine = engine;
+        this.pages = pages;
+        this.cursor = TweetIndex.NEWEST;
+        setSize(500, 350);
+        setLayout(new BorderLayout());
+
+        resultModel = new DefaultListModel<>();
+        add(new JScrollPane(new JList<>(resultModel)), BorderLayout.CENTER);
+
+        JPanel bottomPanel = new JPanel(new FlowLayout());
+        statusLabel = new JLabel();
+        olderButton = new JButton("Older");
+        olderButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showNextPage();
+            }
+        });
+        bottomPanel.add(statusLabel);
+        bottomPanel.add(olderButton);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        showNextPage();
+        setLocationRelativeTo(owner);
+        setVisible(true);
+    }
+
+    private void showNextPage() {
+        SearchPage page = pages.apply(cursor);
+        for (Tweet tweet : page.getTweets()) {
+            resultModel.addElement(UserView.formatTweet(engine, tweet));
+        }
+        cursor = page.getNextCursor();
+        olderButton.setEnabled(page.hasMore());
+        statusLabel.setText(resultModel.size() == 0 && !page.hasMore() ? "No tweets found" : resultModel.size() + " tweets shown");
+    }
+}
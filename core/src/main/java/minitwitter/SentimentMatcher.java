@@ -0,0 +1,119 @@
+package minitwitter;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * SentimentMatcher scores a tweet by counting how many times the words of its lexicon occur in it, ignoring case.
+ * The lexicon is compiled into an Aho-Corasick automaton, so a tweet is scored in a single pass over its
+ * characters no matter how many words the lexicon has, and scoring allocates nothing.
+ */
+public class SentimentMatcher {
+    /** The lexicon used when no other is configured. */
+    public static final String[] POSITIVE_WORDS = {"good", "nice", "awesome", "happy", "great", "enjoy"};
+
+    private static final int ROOT = 0;
+
+    private char[][] edgeChars; // Per state, the characters of its outgoing trie edges
+    private int[][] edgeTargets; // Per state, the target states of those edges
+    private int[] failure; // Per state, the longest proper suffix that is also a state
+    private int[] matches; // Per state, the number of lexicon words that end there, including through failures
+    private int stateCount;
+
+    /** Compiles the given lexicon. Words are matched without regard to case. */
+    public SentimentMatcher(String... words) {
+        int capacity = 1;
+        for (String word : words) {
+            capacity += word.length();
+        }
+        edgeChars = new char[capacity][0];
+        edgeTargets = new int[capacity][0];
+        failure = new int[capacity];
+        matches = new int[capacity];
+        stateCount = 1;
+
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                addWord(word);
+            }
+        }
+        buildFailureLinks();
+    }
+
+    /** Returns a matcher for the default positive lexicon. */
+    public static SentimentMatcher positive() {
+        return new SentimentMatcher(POSITIVE_WORDS);
+    }
+
+    /** Returns the number of occurrences of lexicon words in the text, counting overlapping occurrences. */
+    public int score(String text) {
+        int state = ROOT;
+        int score = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next = transition(state, c);
+            while (next < 0 && state != ROOT) {
+                state = failure[state];
+                next = transition(state, c);
+            }
+            state = (next < 0) ? ROOT : next;
+            score += matches[state];
+        }
+        return score;
+    }
+
+    private void addWord(String word) {
+        int state = ROOT;
+        for (int i = 0; i < word.length(); i++) {
+            char c = Character.toLowerCase(word.charAt(i));
+            int next = transition(state, c);
+            if (next < 0) {
+                next = stateCount++;
+                int edges = edgeChars[state].length;
+                edgeChars[state] = Arrays.copyOf(edgeChars[state], edges + 1);
+                edgeTargets[state] = Arrays.copyOf(edgeTargets[state], edges + 1);
+                edgeChars[state][edges] = c;
+                edgeTargets[state][edges] = next;
+            }
+            state = next;
+        }
+        matches[state]++;
+    }
+
+    // Breadth-first, so the failure state of every shallower state is known before it is needed.
+    private void buildFailureLinks() {
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            for (int i = 0; i < edgeChars[state].length; i++) {
+                char c = edgeChars[state][i];
+                int child = edgeTargets[state][i];
+                int fallback = failure[state];
+                int next = transition(fallback, c);
+                while (next < 0 && fallback != ROOT) {
+                    fallback = failure[fallback];
+                    next = transition(fallback, c);
+                }
+                failure[child] = (next < 0) ? ROOT : next;
+                matches[child] += matches[failure[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    // Returns the trie child of the state for the character, or -1 if there is none.
+    private int transition(int state, char c) {
+        char[] chars = edgeChars[state];
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] == c) {
+                return edgeTargets[state][i];
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,46 @@
+package minitwitter;
+
+/**
+ * SlidingWindowCounter counts events over the last few seconds in a ring of one-second buckets, so its memory
+ * is fixed by the window length and not by how many events it has seen. A bucket is reused once its second
+ * has left the window.
+ */
+public class SlidingWindowCounter {
+    private final int[] counts;
+    private final long[] seconds; // The second each bucket last counted
+
+    /** Constructs a counter over a window of the given number of seconds. */
+    public SlidingWindowCounter(int windowSeconds) {
+        this.counts = new int[windowSeconds];
+        this.seconds = new long[windowSeconds];
+    }
+
+    /** Counts an event at the given second, given as seconds since 1970; events older than the window are ignored. */
+    public void increment(long second) {
+        int bucket = (int) (second % counts.length);
+        if (seconds[bucket] > second) {
+            return;
+        }
+        if (seconds[bucket] != second) {
+            seconds[bucket] = second;
+            counts[bucket] = 0;
+        }
+        counts[bucket]++;
+    }
+
+    /** Returns the number of events in the window that ends with the given second. */
+    public int sum(long now) {
+        int sum = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (now - seconds[bucket] < counts.length && seconds[bucket] <= now) {
+                sum += counts[bucket];
+            }
+        }
+        return sum;
+    }
+
+    /** Returns the mean number of events per second over the window that ends with the given second. */
+    public double rate(long now) {
+        return (double) sum(now) / counts.length;
+    }
+}
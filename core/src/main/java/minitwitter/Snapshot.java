@@ -0,0 +1,274 @@
+package minitwitter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snapshot writes the whole network to one compact binary file and loads it back, so a large network can be
+ * restored without replaying every change one at a time. The file holds every registered user with its follow
+ * edges and feeds, every tweet in the TweetStore, and the group tree. Users and tweets are written in index
+ * order, so their indexes and IDs are the same after loading, and follow edges are stored as those indexes.
+ *
+ * Loading memory-maps the file a window at a time, so snapshots larger than one mapping can hold are read too,
+ * and rebuilds the users, follow sets and tweet store in bulk. It must run before any user is created or tweet
+ * is posted in this process.
+ */
+public class Snapshot {
+    private static final int MAGIC = 0x4D545753; // "MTWS"
+    private static final int VERSION = 2;
+    private static final byte USER_MEMBER = 0;
+    private static final byte GROUP_MEMBER = 1;
+    private static final long MAP_WINDOW = 1L << 28; // Bytes of the file mapped at once while loading
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the network under the given root group. The file is written next to the target and
+     * then moved over it, so a crash never leaves a half-written snapshot in its place. Nothing should post or
+     * follow while the snapshot is being written.
+     */
+    public static void write(Path path, UserGroup root) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            UserRegistry registry = UserRegistry.getInstance();
+            int userCount = registry.size();
+            out.writeInt(userCount);
+            for (int index = 0; index < userCount; index++) {
+                User user = registry.get(index);
+                out.writeLong(user.getId());
+                writeString(out, user.getName());
+                out.writeLong(user.getCreationTime());
+                out.writeLong(user.getOwnLastUpdateTime());
+                for (int[] values : user.captureState()) {
+                    writeInts(out, values);
+                }
+            }
+
+            TweetStore store = TweetStore.getInstance();
+            int tweetCount = store.size();
+            out.writeInt(tweetCount);
+            for (int id = 0; id < tweetCount; id++) {
+                Tweet tweet = store.get(id);
+                out.writeLong(tweet.getAuthorId());
+                out.writeLong(tweet.getTime());
+                out.writeInt(tweet.getScore());
+                out.writeBoolean(tweet.isPushed());
+                writeString(out, tweet.getBody());
+            }
+
+            writeGroup(out, root);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Loads a snapshot and returns its root group, or returns null if there is no snapshot at the path. */
+    public static UserGroup load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedInput in = new MappedInput(channel);
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException(path + " is not a snapshot this version can read");
+            }
+            if (IdRegistry.getInstance().size() != 0 || TweetStore.getInstance().size() != 0) {
+                throw new IOException("A snapshot must be loaded before any user, group or tweet is created");
+            }
+
+            int userCount = in.getInt();
+            List<User> users = new ArrayList<>(userCount);
+            List<int[]> followings = new ArrayList<>(userCount);
+            for (int index = 0; index < userCount; index++) {
+                long id = in.getLong();
+                IdGenerator.advancePast(id);
+                User user = new User(id, readString(in), in.getLong());
+                long lastUpdateTime = in.getLong();
+                int[][] state = new int[5][];
+                for (int i = 0; i < state.length; i++) {
+                    state[i] = readInts(in);
+                }
+                user.restoreState(state, lastUpdateTime);
+                users.add(user);
+                followings.add(state[0]);
+            }
+            restoreFollowers(users, followings);
+
+            TweetStore store = TweetStore.getInstance();
+            int tweetCount = in.getInt();
+            for (int id = 0; id < tweetCount; id++) {
+                long authorId = in.getLong();
+                long time = in.getLong();
+                int score = in.getInt();
+                boolean pushed = in.get() != 0;
+                store.append(authorId, time, readString(in), score, pushed);
+            }
+
+            return readGroup(in, users);
+        }
+    }
+
+    // Inverts the following lists into one array of followers grouped by followee, so each follower set is
+    // built in one pass at its final size.
+    private static void restoreFollowers(List<User> users, List<int[]> followings) {
+        int userCount = users.size();
+        int[] offsets = new int[userCount + 1];
+        for (int[] followees : followings) {
+            for (int followee : followees) {
+                offsets[followee + 1]++;
+            }
+        }
+        for (int index = 0; index < userCount; index++) {
+            offsets[index + 1] += offsets[index];
+        }
+        int[] followers = new int[offsets[userCount]];
+        int[] next = Arrays.copyOf(offsets, userCount);
+        for (int index = 0; index < userCount; index++) {
+            for (int followee : followings.get(index)) {
+                followers[next[followee]++] = index;
+            }
+        }
+        for (int index = 0; index < userCount; index++) {
+            users.get(index).restoreFollowers(followers, offsets[index], offsets[index + 1]);
+        }
+    }
+
+    private static void writeGroup(DataOutputStream out, UserGroup group) throws IOException {
+        out.writeLong(group.getId());
+        writeString(out, group.getName());
+        out.writeLong(group.getCreationTime());
+        List<UserInterface> members = group.getMembers();
+        out.writeInt(members.size());
+        for (UserInterface member : members) {
+            if (member instanceof User) {
+                out.writeByte(USER_MEMBER);
+                out.writeInt(((User) member).getIndex());
+            } else {
+                out.writeByte(GROUP_MEMBER);
+                writeGroup(out, (UserGroup) member);
+            }
+        }
+    }
+
+    private static UserGroup readGroup(MappedInput in, List<User> users) throws IOException {
+        long id = in.getLong();
+        IdGenerator.advancePast(id);
+        UserGroup group = new UserGroup(id, readString(in), in.getLong());
+        int memberCount = in.getInt();
+        for (int i = 0; i < memberCount; i++) {
+            if (in.get() == USER_MEMBER) {
+                group.add(users.get(in.getInt()));
+            } else {
+                group.add(readGroup(in, users));
+            }
+        }
+        return group;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedInput in) throws IOException {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(MappedInput in) throws IOException {
+        int[] values = new int[in.getInt()];
+        in.get(values);
+        return values;
+    }
+
+    // Reads a file through a mapping of up to MAP_WINDOW bytes, moving the mapping along as the reads reach
+    // its end, since one mapping cannot cover more than 2GB.
+    private static class MappedInput {
+        private final FileChannel channel;
+        private final long size;
+        private long start; // Position in the file of the start of the mapping
+        private MappedByteBuffer buffer;
+
+        MappedInput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        byte get() throws IOException {
+            require(1);
+            return buffer.get();
+        }
+
+        int getInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        long getLong() throws IOException {
+            require(8);
+            return buffer.getLong();
+        }
+
+        void get(byte[] values) throws IOException {
+            int done = 0;
+            while (done < values.length) {
+                require(1);
+                int count = Math.min(buffer.remaining(), values.length - done);
+                buffer.get(values, done, count);
+                done += count;
+            }
+        }
+
+        void get(int[] values) throws IOException {
+            int done = 0;
+            while (done < values.length) {
+                require(4);
+                int count = Math.min(buffer.remaining() / 4, values.length - done);
+                buffer.asIntBuffer().get(values, done, count);
+                buffer.position(buffer.position() + count * 4);
+                done += count;
+            }
+        }
+
+        // Moves the mapping to start at the next unread byte if fewer than the given number are left in it.
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                long position = start + buffer.position();
+                if (size - position < bytes) {
+                    throw new EOFException("Snapshot ends in the middle of a record");
+                }
+                map(position);
+            }
+        }
+
+        private void map(long position) throws IOException {
+            start = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+        }
+    }
+}
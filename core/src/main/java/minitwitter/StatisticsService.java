@@ -0,0 +1,124 @@
+package minitwitter;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StatisticsService keeps the same figures as the AnalysisVisitor, but updates them as users, groups and
+ * tweets are created instead of walking the whole tree for each report, so every figure is returned in
+ * constant time. Tweets are reported from the threads that post them, so their counts are kept in LongAdders
+ * and the last update is swapped in with a compare-and-set, and a post takes no lock here. Users and groups
+ * are only added under the engine's tree lock, so their counts are plain volatile fields. The counts are kept
+ * consistent with a full visitor pass, which the admin panel's "Verify Statistics" button checks through
+ * matches().
+ */
+public class StatisticsService implements TweetListener {
+    private static final int PARALLEL_THRESHOLD = 10000; // User count from which a recount runs in parallel
+    private static final Update NO_UPDATE = new Update(null, 0);
+
+    private volatile int userCount; // Written under the engine's tree lock
+    private volatile int userGroupCount; // Written under the engine's tree lock
+    private final LongAdder newsFeedCount = new LongAdder();
+    private final LongAdder positiveCount = new LongAdder();
+    private final AtomicReference<Update> lastUpdate = new AtomicReference<>(NO_UPDATE);
+
+    // A user and the time of one of its updates, swapped in whole so the two always agree.
+    private static class Update {
+        private final User user;
+        private final long time;
+
+        Update(User user, long time) {
+            this.user = user;
+            this.time = time;
+        }
+    }
+
+    /** Constructs a service for a tree that so far contains only its root group. */
+    public StatisticsService() {
+        this.userGroupCount = 1;
+    }
+
+    /**
+     * Records a user being added to the tree, along with any tweets it already has, as when it is restored. Users
+     * and groups are added one at a time, under the engine's tree lock.
+     */
+    public void userAdded(User user) {
+        userCount++;
+        newsFeedCount.add(user.getTweetCount());
+        positiveCount.add(user.getPositiveTweetCount());
+        offer(new Update(user, user.getLastUpdateTime()), false);
+    }
+
+    /** Records a group being added to the tree. */
+    public void userGroupAdded(UserGroup userGroup) {
+        userGroupCount++;
+    }
+
+    @Override
+    public void tweetPosted(User author, Tweet tweet) {
+        newsFeedCount.increment();
+        if (tweet.isPositive()) {
+            positiveCount.increment();
+        }
+        offer(new Update(author, tweet.getTime()), true);
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getUserGroupCount() {
+        return userGroupCount;
+    }
+
+    public int getNewsFeedCount() {
+        return newsFeedCount.intValue();
+    }
+
+    public User getLastUpdatedUser() {
+        return lastUpdate.get().user;
+    }
+
+    public float getPositivePercentage() {
+        int total = getNewsFeedCount();
+        if (total == 0) {
+            return 0;
+        }
+
+        return ((float) positiveCount.intValue() / total) * 100;
+    }
+
+    /**
+     * Runs a full AnalysisVisitor pass over the tree and returns whether it agrees with the maintained counts.
+     * Large trees are recounted with the ParallelAnalysisVisitor. Several users can share the latest update
+     * time, so the last updated users are compared by that time. The tree must not change during the pass.
+     */
+    public boolean matches(UserGroup root) {
+        AnalysisVisitor visitor = (userCount >= PARALLEL_THRESHOLD) ? new ParallelAnalysisVisitor() : new AnalysisVisitor();
+        long start = System.nanoTime();
+        root.accept(visitor);
+        Metrics.getInstance().analysisRecorded(System.nanoTime() - start);
+        User visitedUser = visitor.getLastUpdatedUser();
+        long visitedTime = (visitedUser != null) ? visitedUser.getLastUpdateTime() : 0;
+        User maintainedUser = getLastUpdatedUser();
+        long maintainedTime = (maintainedUser != null) ? maintainedUser.getLastUpdateTime() : 0;
+        return visitor.getUserCount() == getUserCount()
+                && visitor.getUserGroupCount() == getUserGroupCount()
+                && visitor.getNewsFeedCount() == getNewsFeedCount()
+                && visitor.getPositivePercentage() == getPositivePercentage()
+                && visitedTime == maintainedTime;
+    }
+
+    // Makes the update the last one if it is later than the one held, or as late and ties are taken.
+    private void offer(Update update, boolean takeTies) {
+        while (true) {
+            Update current = lastUpdate.get();
+            if (update.time < current.time || (update.time == current.time && !takeTies)) {
+                return;
+            }
+            if (lastUpdate.compareAndSet(current, update)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package minitwitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * StreamingAnalytics reads each tweet as it is posted and keeps figures over a sliding window of the last
+ * minute: the posting rate of the whole network, the posting rate of every group counting everything under it,
+ * and the trending words. Words are counted in a ring of CountMinSketches, one per ten seconds of the window,
+ * and a bounded set of candidate heavy hitters is kept alongside, so the memory used depends on the window and
+ * the number of groups, never on how many tweets have been posted.
+ *
+ * Tweets are reported from the threads that post them, so the figures are split into stripes, about one per
+ * processor, and each tweet is counted in the stripe its author falls in, under that stripe's lock alone.
+ * Queries lock the stripes one at a time and add up what they hold. Counts add up exactly across stripes, and
+ * a word's estimate is the sum of its estimates in each stripe, which is never too low either.
+ */
+public class StreamingAnalytics implements TweetListener {
+    private static final int WINDOW_SECONDS = 60;
+    private static final int SLOT_SECONDS = 10; // Seconds of words counted in each sketch
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int MAX_CANDIDATES = 1000; // Words tracked as possible heavy hitters, after pruning
+    private static final int MIN_WORD_LENGTH = 3;
+    // A power of two no greater than 16 and at least the number of processors, or 16 if there are more
+    private static final int STRIPES = Integer.highestOneBit(Math.min(16, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "her", "was", "one", "our", "out",
+            "has", "have", "this", "that", "with", "from", "they", "will", "just", "what", "your", "about"));
+
+    private final Stripe[] stripes;
+
+    // The figures of the tweets of one stripe of authors, guarded by the stripe.
+    private static class Stripe {
+        private final SlidingWindowCounter globalPosts;
+        private final Map<UserGroup, SlidingWindowCounter> groupPosts; // Groups below the top that have had a post under them
+        private final CountMinSketch[] sketches;
+        private final long[] sketchSlots; // The slot, in units of SLOT_SECONDS since 1970, each sketch counts
+        private final Set<String> candidates; // Words that may be trending
+
+        Stripe() {
+            this.globalPosts = new SlidingWindowCounter(WINDOW_SECONDS);
+            this.groupPosts = new IdentityHashMap<>();
+            this.sketches = new CountMinSketch[WINDOW_SECONDS / SLOT_SECONDS];
+            this.sketchSlots = new long[sketches.length];
+            for (int i = 0; i < sketches.length; i++) {
+                sketches[i] = new CountMinSketch(SKETCH_WIDTH);
+            }
+            this.candidates = new HashSet<>();
+        }
+
+        synchronized void record(long second, List<UserGroup> groups, Set<String> words) {
+            globalPosts.increment(second);
+            for (UserGroup group : groups) {
+                SlidingWindowCounter counter = groupPosts.get(group);
+                if (counter == null) {
+                    counter = new SlidingWindowCounter(WINDOW_SECONDS);
+                    groupPosts.put(group, counter);
+                }
+                counter.increment(second);
+            }
+            CountMinSketch sketch = sketchFor(second);
+            if (sketch == null) {
+                return;
+            }
+            for (String word : words) {
+                sketch.add(word);
+                candidates.add(word);
+            }
+            if (candidates.size() > 2 * MAX_CANDIDATES) {
+                pruneCandidates(second);
+            }
+        }
+
+        synchronized int posts(long second) {
+            return globalPosts.sum(second);
+        }
+
+        synchronized int posts(UserGroup group, long second) {
+            SlidingWindowCounter counter = groupPosts.get(group);
+            return counter == null ? 0 : counter.sum(second);
+        }
+
+        // Adds the posts in the window under each group this stripe has seen to the totals.
+        synchronized void addGroupPosts(Map<UserGroup, Integer> totals, long second) {
+            for (Map.Entry<UserGroup, SlidingWindowCounter> entry : groupPosts.entrySet()) {
+                int posts = entry.getValue().sum(second);
+                if (posts > 0) {
+                    totals.merge(entry.getKey(), posts, Integer::sum);
+                }
+            }
+        }
+
+        synchronized void addCandidates(Set<String> words) {
+            words.addAll(candidates);
+        }
+
+        // Adds this stripe's estimate of each word to its total.
+        synchronized void addEstimates(Map<String, Integer> totals, long second) {
+            for (Map.Entry<String, Integer> entry : totals.entrySet()) {
+                entry.setValue(entry.getValue() + estimate(entry.getKey(), second));
+            }
+        }
+
+        // Returns the sketch counting the given second, clearing it first if it last counted an older slot, or
+        // null if the second has already left the window.
+        private CountMinSketch sketchFor(long second) {
+            long slot = second / SLOT_SECONDS;
+            int index = (int) (slot % sketches.length);
+            if (sketchSlots[index] > slot) {
+                return null;
+            }
+            if (sketchSlots[index] != slot) {
+                sketchSlots[index] = slot;
+                sketches[index].clear();
+            }
+            return sketches[index];
+        }
+
+        // Estimates how many tweets in the window ending with the given second used the word.
+        private int estimate(String word, long second) {
+            long slot = second / SLOT_SECONDS;
+            int estimate = 0;
+            for (int i = 0; i < sketches.length; i++) {
+                if (sketchSlots[i] <= slot && slot - sketchSlots[i] < sketches.length) {
+                    estimate += sketches[i].estimate(word);
+                }
+            }
+            return estimate;
+        }
+
+        // Keeps only the MAX_CANDIDATES words with the highest estimates in this stripe.
+        private void pruneCandidates(long second) {
+            Map<String, Integer> estimates = new HashMap<>();
+            for (String word : candidates) {
+                estimates.put(word, estimate(word, second));
+            }
+            candidates.clear();
+            for (TrendingTerm term : top(estimates, MAX_CANDIDATES)) {
+                candidates.add(term.getWord());
+            }
+        }
+    }
+
+    public StreamingAnalytics() {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void tweetPosted(User author, Tweet tweet) {
+        Set<String> words = words(tweet.getBody());
+        // The top group holds everyone, so its rate is the global one
+        List<UserGroup> groups = new ArrayList<>();
+        for (UserGroup group = author.getPosition().getParent(); group != null && group.getPosition().getParent() != null;
+                group = group.getPosition().getParent()) {
+            groups.add(group);
+        }
+        stripes[author.getIndex() & (stripes.length - 1)].record(tweet.getTime() / 1000, groups, words);
+    }
+
+    /** Returns the number of tweets per second posted in the last minute, as of the given time in milliseconds. */
+    public double getPostRate(long now) {
+        int posts = 0;
+        for (Stripe stripe : stripes) {
+            posts += stripe.posts(now / 1000);
+        }
+        return (double) posts / WINDOW_SECONDS;
+    }
+
+    /**
+     * Returns the number of tweets per second posted in the last minute by users anywhere under the group, as of
+     * the given time in milliseconds.
+     */
+    public double getPostRate(UserGroup group, long now) {
+        if (group.getPosition().getParent() == null) {
+            return getPostRate(now);
+        }
+        int posts = 0;
+        for (Stripe stripe : stripes) {
+            posts += stripe.posts(group, now / 1000);
+        }
+        return (double) posts / WINDOW_SECONDS;
+    }
+
+    /** Returns up to limit groups below the top with the highest posting rate in the last minute, highest first. */
+    public List<UserGroup> getBusiestGroups(int limit, long now) {
+        Map<UserGroup, Integer> totals = new IdentityHashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.addGroupPosts(totals, now / 1000);
+        }
+        PriorityQueue<Map.Entry<UserGroup, Integer>> busiest = new PriorityQueue<>((a, b) -> Integer.compare(a.getValue(), b.getValue()));
+        for (Map.Entry<UserGroup, Integer> entry : totals.entrySet()) {
+            busiest.add(entry);
+            if (busiest.size() > limit) {
+                busiest.poll();
+            }
+        }
+        List<UserGroup> groups = new ArrayList<>();
+        while (!busiest.isEmpty()) {
+            groups.add(busiest.poll().getKey());
+        }
+        Collections.reverse(groups);
+        return groups;
+    }
+
+    /** Returns up to limit of the words used in the most tweets in the last minute, most used first. */
+    public List<TrendingTerm> getTrending(int limit, long now) {
+        Set<String> words = new HashSet<>();
+        for (Stripe stripe : stripes) {
+            stripe.addCandidates(words);
+        }
+        Map<String, Integer> estimates = new HashMap<>();
+        for (String word : words) {
+            estimates.put(word, 0);
+        }
+        for (Stripe stripe : stripes) {
+            stripe.addEstimates(estimates, now / 1000);
+        }
+        List<TrendingTerm> trending = new ArrayList<>(top(estimates, limit));
+        trending.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+        return trending;
+    }
+
+    // Returns the words with the highest estimates, in a min-heap of at most limit words.
+    private static PriorityQueue<TrendingTerm> top(Map<String, Integer> estimates, int limit) {
+        PriorityQueue<TrendingTerm> top = new PriorityQueue<>((a, b) -> Integer.compare(a.getCount(), b.getCount()));
+        for (Map.Entry<String, Integer> entry : estimates.entrySet()) {
+            int count = entry.getValue();
+            if (count > 0 && (top.size() < limit || count > top.peek().getCount())) {
+                top.add(new TrendingTerm(entry.getKey(), count));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        return top;
+    }
+
+    // Splits a tweet into its distinct lower-case words, leaving out short and common ones.
+    private static Set<String> words(String body) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : body.toLowerCase().split("[^\\p{L}\\p{N}#@']+")) {
+            if (word.length() >= MIN_WORD_LENGTH && !STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,227 @@
+package minitwitter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * StressCheck posts and follows from many threads at once against a headless MiniTwitterEngine, then checks
+ * that no delivery was lost: every follower's feed must hold every tweet its followees posted after the follow,
+ * whether the tweet was pushed or pulled, and the maintained statistics must match a full recount. A few users
+ * are followed by everyone, past a lowered pull threshold, so both ways of delivery are exercised. Meanwhile one
+ * thread keeps moving users between groups, and a group between parents, and at the end the aggregates of every
+ * group must match a recount of the users under it. It prints what it found and exits with status 1 if anything
+ * is missing, so it can be run by hand or from a build.
+ *
+ * Usage: java minitwitter.StressCheck [threads] [users] [operations per thread] [seed]
+ */
+public class StressCheck {
+    private static final int CELEBRITIES = 3;
+    private static final int INITIAL_FOLLOWS = 10; // Follows each user makes before posting starts
+    private static final double FOLLOW_FRACTION = 0.1; // Share of the concurrent operations that follow someone
+    private static final double MOVE_FRACTION = 0.2; // Share of the first thread's operations that move a member
+    private static final int GROUPS = 4;
+    private static final int PAGE_SIZE = 1000;
+
+    private final MiniTwitterEngine engine;
+    private final User[] users;
+    private final UserGroup[] groups; // Groups under the top one, the last of them moved between the others
+    private final ConcurrentLinkedQueue<Follow> follows;
+    private final ConcurrentLinkedQueue<CompletableFuture<Tweet>> posts;
+    // A follow, with the ID the next tweet would get when it returned: every later tweet of the followee is due
+    private static class Follow {
+        final User follower;
+        final User followee;
+        final int firstDueId;
+
+        Follow(User follower, User followee, int firstDueId) {
+            this.follower = follower;
+            this.followee = followee;
+            this.firstDueId = firstDueId;
+        }
+    }
+
+    private StressCheck(int userCount) {
+        this.engine = new MiniTwitterEngine();
+        this.users = new User[userCount];
+        this.follows = new ConcurrentLinkedQueue<>();
+        this.posts = new ConcurrentLinkedQueue<>();
+        this.groups = new UserGroup[GROUPS];
+        UserGroup top = engine.createGroup("stress", engine.getRoot());
+        for (int g = 0; g < GROUPS; g++) {
+            groups[g] = engine.createGroup("stress-group" + g, g == GROUPS - 1 ? groups[0] : top);
+        }
+        for (int i = 0; i < userCount; i++) {
+            users[i] = engine.createUser("stress" + i, groups[i % GROUPS]);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 2 * Runtime.getRuntime().availableProcessors();
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        // Low enough that the celebrities, followed by everyone, have their tweets pulled, and feeds large enough
+        // to keep every tweet, so a missing one can only be a lost delivery
+        User.setPullThreshold(userCount / 2);
+        User.setFeedCapacity(threads * operations + 1);
+
+        StressCheck check = new StressCheck(userCount);
+        check.run(threads, operations, seed);
+        boolean passed = check.verify();
+        System.out.println(passed ? "PASSED" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+
+    // Makes the initial follows from all threads, then mixes posts and further follows on all threads.
+    private void run(int threadCount, int operations, long seed) throws InterruptedException {
+        runOnThreads(threadCount, seed, (thread, random) -> {
+            for (int i = thread; i < users.length; i += threadCount) {
+                for (int c = 0; c < CELEBRITIES; c++) {
+                    follow(users[i], users[c]);
+                }
+                for (int f = 0; f < INITIAL_FOLLOWS; f++) {
+                    follow(users[i], users[random.nextInt(users.length)]);
+                }
+            }
+        });
+        runOnThreads(threadCount, seed + 1, (thread, random) -> {
+            for (int i = 0; i < operations; i++) {
+                // Only the first thread moves members, so no member is moved by two threads at once
+                if (thread == 0 && random.nextDouble() < MOVE_FRACTION) {
+                    move(random);
+                } else if (random.nextDouble() < FOLLOW_FRACTION) {
+                    follow(users[random.nextInt(users.length)], users[random.nextInt(users.length)]);
+                } else {
+                    User author = users[random.nextInt(users.length)];
+                    posts.add(engine.post(author, "stress " + thread + " " + i));
+                }
+            }
+        });
+        CompletableFuture.allOf(posts.toArray(new CompletableFuture<?>[0])).join();
+        System.out.println(users.length + " users, " + follows.size() + " follows, " + posts.size() + " posts on "
+                + threadCount + " threads");
+    }
+
+    private void follow(User follower, User followee) {
+        if (follower != followee) {
+            engine.follow(follower, followee);
+            follows.add(new Follow(follower, followee, TweetStore.getInstance().nextId()));
+        }
+    }
+
+    // Moves a random user to a random group, or the last group to the parent it is not under.
+    private void move(Random random) {
+        UserGroup moving = groups[GROUPS - 1];
+        if (random.nextInt(10) == 0) {
+            UserGroup parent = moving.getPosition().getParent();
+            parent.remove(moving);
+            (parent == groups[0] ? groups[1] : groups[0]).add(moving);
+        } else {
+            User user = users[random.nextInt(users.length)];
+            user.getPosition().getParent().remove(user);
+            groups[random.nextInt(GROUPS)].add(user);
+        }
+    }
+
+    // Checks every feed against the tweets due to it, and the statistics against a recount.
+    private boolean verify() {
+        Map<User, List<Tweet>> tweetsByAuthor = new IdentityHashMap<>();
+        Map<User, IntHashSet> feeds = new IdentityHashMap<>();
+        for (User user : users) {
+            tweetsByAuthor.put(user, new ArrayList<>());
+            feeds.put(user, readWholeFeed(user));
+        }
+        for (CompletableFuture<Tweet> post : posts) {
+            Tweet tweet = post.join();
+            tweetsByAuthor.get(engine.findUserById(tweet.getAuthorId())).add(tweet);
+        }
+
+        long missing = 0;
+        for (User user : users) {
+            for (Tweet tweet : tweetsByAuthor.get(user)) {
+                if (!feeds.get(user).contains(tweet.getId())) {
+                    missing++;
+                }
+            }
+        }
+        for (Follow follow : follows) {
+            for (Tweet tweet : tweetsByAuthor.get(follow.followee)) {
+                if (tweet.getId() >= follow.firstDueId && !feeds.get(follow.follower).contains(tweet.getId())) {
+                    missing++;
+                }
+            }
+        }
+        boolean statisticsMatch = engine.verifyStatistics();
+        int[] groupMismatches = new int[1];
+        recountGroup(engine.getRoot(), groupMismatches);
+        System.out.println("Missing deliveries: " + missing + ", statistics match a recount: " + statisticsMatch
+                + ", groups whose aggregates differ from a recount: " + groupMismatches[0]);
+        return missing == 0 && statisticsMatch && groupMismatches[0] == 0;
+    }
+
+    // Recounts the users, tweets and positive tweets under the group, counting each group whose aggregates
+    // differ in mismatches, and returns the three counts.
+    private static long[] recountGroup(UserGroup group, int[] mismatches) {
+        long[] counts = new long[3];
+        for (int i = 0; i < group.getMemberCount(); i++) {
+            UserInterface member = group.getMember(i);
+            if (member instanceof UserGroup) {
+                long[] memberCounts = recountGroup((UserGroup) member, mismatches);
+                for (int c = 0; c < counts.length; c++) {
+                    counts[c] += memberCounts[c];
+                }
+            } else {
+                User user = (User) member;
+                counts[0]++;
+                counts[1] += user.getTweetCount();
+                counts[2] += user.getPositiveTweetCount();
+            }
+        }
+        float positivePercentage = counts[1] == 0 ? 0 : ((float) counts[2] / counts[1]) * 100;
+        if (group.getSubtreeUserCount() != counts[0] || group.getSubtreeTweetCount() != counts[1]
+                || group.getSubtreePositivePercentage() != positivePercentage) {
+            System.out.println(group.getName() + ": " + group.getSubtreeUserCount() + " users, "
+                    + group.getSubtreeTweetCount() + " tweets, recounted " + counts[0] + " users, " + counts[1]
+                    + " tweets");
+            mismatches[0]++;
+        }
+        return counts;
+    }
+
+    // Reads every tweet in the user's feed, page by page, pushed and pulled alike.
+    private IntHashSet readWholeFeed(User user) {
+        IntHashSet ids = new IntHashSet();
+        int cursor = User.NO_CURSOR;
+        FeedPage page;
+        do {
+            page = engine.readFeed(user, cursor, PAGE_SIZE);
+            for (Tweet tweet : page.getTweets()) {
+                ids.add(tweet.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+        return ids;
+    }
+
+    private interface Work {
+        void run(int thread, Random random);
+    }
+
+    // Runs the work on the given number of threads at once, each with its own seeded Random, and waits for them.
+    private static void runOnThreads(int threadCount, long seed, Work work) throws InterruptedException {
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+            threads[t] = new Thread(() -> work.run(thread, new Random(seed * 31 + thread)), "stress-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package minitwitter;
+
+import java.util.ArrayDeque;
+
+/**
+ * TreePosition records where a user or group sits in the group tree: its parent, its index among the parent's
+ * members, its depth below the top of the tree, and pointers to its ancestors 1, 2, 4, 8 and so on levels up.
+ * With the pointers, finding a node's ancestor at any depth takes O(log depth) steps instead of a walk up the
+ * tree, so whether a user is somewhere under a group is answered without visiting the groups in between.
+ * UserGroup.add() and remove() keep every position up to date. Positions are changed only while holding LOCK,
+ * which the whole tree shares, and read under it too, except the parent, which can be read at any time so that
+ * posting can walk up the tree without taking the lock.
+ */
+public class TreePosition {
+    /** Guards every position and the subtree member counts, and serializes changes to the shape of the tree. */
+    static final Object LOCK = new Object();
+
+    private static final UserGroup[] NO_ANCESTORS = new UserGroup[0];
+
+    private volatile UserGroup parent;
+    private int index;
+    private int depth;
+    private UserGroup[] ancestors = NO_ANCESTORS; // ancestors[k] is the ancestor 2^k levels up
+
+    /** Returns the group this node is a member of, or null if it is the top of its tree; takes no lock. */
+    public UserGroup getParent() {
+        return parent;
+    }
+
+    /** Returns the number of groups between this node and the top of its tree, which has depth 0. */
+    public int getDepth() {
+        synchronized (LOCK) {
+            return depth;
+        }
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    // Places the node under a parent; relocate() must follow to bring the depths and ancestors up to date.
+    void attach(UserGroup parent, int index) {
+        this.parent = parent;
+        this.index = index;
+    }
+
+    // Takes the node out of its parent; relocate() must follow to bring the depths and ancestors up to date.
+    void detach() {
+        this.parent = null;
+        this.index = 0;
+    }
+
+    /**
+     * Returns the ancestor of the node at the given depth, or null if the node is not below that depth. Must be
+     * called while holding LOCK.
+     */
+    static UserGroup ancestorAt(UserInterface node, int targetDepth) {
+        TreePosition position = node.getPosition();
+        int distance = position.depth - targetDepth;
+        if (distance <= 0) {
+            return null;
+        }
+        UserGroup ancestor = null;
+        // Every set bit of the distance is one jump; the jump of 2^k levels always fits, since what is left of
+        // the distance, and so 2^k, is at most the depth of the node jumped from
+        for (int k = 0; distance != 0; k++, distance >>>= 1) {
+            if ((distance & 1) != 0) {
+                ancestor = position.ancestors[k];
+                position = ancestor.getPosition();
+            }
+        }
+        return ancestor;
+    }
+
+    /**
+     * Recomputes the depth and ancestors of the node and everything under it, after the node has been attached
+     * or detached. Must be called while holding LOCK.
+     */
+    static void relocate(UserInterface node) {
+        ArrayDeque<UserInterface> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            UserInterface current = pending.pop();
+            current.getPosition().update();
+            if (current instanceof UserGroup) {
+                for (UserInterface member : ((UserGroup) current).getMembers()) {
+                    pending.push(member);
+                }
+            }
+        }
+    }
+
+    // Recomputes the depth and ancestors from the parent's, which must already be up to date.
+    private void update() {
+        if (parent == null) {
+            depth = 0;
+            ancestors = NO_ANCESTORS;
+            return;
+        }
+        depth = parent.getPosition().depth + 1;
+        ancestors = new UserGroup[32 - Integer.numberOfLeadingZeros(depth)];
+        ancestors[0] = parent;
+        for (int k = 1; k < ancestors.length; k++) {
+            ancestors[k] = ancestors[k - 1].getPosition().ancestors[k - 1];
+        }
+    }
+}
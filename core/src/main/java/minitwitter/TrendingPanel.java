@@ -0,0 +1,79 @@
+package minitwitter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+
+/**
+ * TrendingPanel shows the StreamingAnalytics of the engine in the admin panel: the posting rate of the last
+ * minute, the busiest groups and the trending words, refreshed once a second while the panel is showing.
+ */
+public class TrendingPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int REFRESH_MILLIS = 1000;
+    private static final int GROUPS_SHOWN = 3;
+    private static final int TERMS_SHOWN = 5;
+
+    private StreamingAnalytics analytics;
+    private JLabel rateLabel;
+    private JLabel groupsLabel;
+    private JLabel trendingLabel;
+    private Timer timer;
+
+    public TrendingPanel(StreamingAnalytics analytics) {
+        super(new GridLayout(0, 1));
+        this.analytics = analytics;
+        setBorder(BorderFactory.createTitledBorder("Last Minute"));
+
+        rateLabel = new JLabel();
+        groupsLabel = new JLabel();
+        trendingLabel = new JLabel();
+        add(rateLabel);
+        add(groupsLabel);
+        add(trendingLabel);
+        refresh();
+
+        timer = new Timer(REFRESH_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        });
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        timer.start();
+    }
+
+    /** Stops refreshing when the panel is removed or its window disposed. */
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+
+    private void refresh() {
+        long now = System.currentTimeMillis();
+        rateLabel.setText(String.format("Tweets: %.1f/s", analytics.getPostRate(now)));
+
+        StringBuilder groups = new StringBuilder("Busiest groups: ");
+        List<UserGroup> busiest = analytics.getBusiestGroups(GROUPS_SHOWN, now);
+        for (int i = 0; i < busiest.size(); i++) {
+            UserGroup group = busiest.get(i);
+            groups.append(i > 0 ? ", " : "").append(group.getName())
+                    .append(String.format(" (%.1f/s)", analytics.getPostRate(group, now)));
+        }
+        groupsLabel.setText(busiest.isEmpty() ? "Busiest groups: none yet" : groups.toString());
+
+        StringBuilder trending = new StringBuilder("Trending: ");
+        List<TrendingTerm> terms = analytics.getTrending(TERMS_SHOWN, now);
+        for (int i = 0; i < terms.size(); i++) {
+            trending.append(i > 0 ? ", " : "").append(terms.get(i));
+        }
+        trendingLabel.setText(terms.isEmpty() ? "Trending: none yet" : trending.toString());
+    }
+}
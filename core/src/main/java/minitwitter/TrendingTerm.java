@@ -0,0 +1,28 @@
+package minitwitter;
+
+/**
+ * TrendingTerm is one word among the trending words reported by the StreamingAnalytics, with the estimated
+ * number of tweets that used it within the window.
+ */
+public class TrendingTerm {
+    private final String word;
+    private final int count;
+
+    public TrendingTerm(String word, int count) {
+        this.word = word;
+        this.count = count;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return word + " (" + count + ")";
+    }
+}
@@ -0,0 +1,61 @@
+package minitwitter;
+
+/**
+ * Tweet is an immutable record of one posted message. It is created once by the TweetStore when a user posts,
+ * and timelines and news feeds refer to it only by its ID. IDs are handed out in posting order, so a later
+ * tweet always has a higher ID. The sentiment score is computed once at post time, so reports only need to
+ * add up stored scores.
+ */
+public class Tweet {
+    private final int id;
+    private final long authorId;
+    private final long time;
+    private final String body;
+    private final int score;
+    private final boolean pushed;
+
+    /** Constructs a tweet. Tweets should be created through TweetStore.append() so that each ID is used once. */
+    Tweet(int id, long authorId, long time, String body, int score, boolean pushed) {
+        this.id = id;
+        this.authorId = authorId;
+        this.time = time;
+        this.body = body;
+        this.score = score;
+        this.pushed = pushed;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getAuthorId() {
+        return authorId;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    /** Returns the number of positive lexicon words found in the body. */
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isPositive() {
+        return score > 0;
+    }
+
+    /** Returns whether this tweet was pushed to followers' feeds, rather than pulled from the author's timeline. */
+    public boolean isPushed() {
+        return pushed;
+    }
+
+    @Override
+    public String toString() {
+        return body;
+    }
+}
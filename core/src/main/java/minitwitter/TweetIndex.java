@@ -0,0 +1,188 @@
+package minitwitter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TweetIndex is an inverted index of the words of every tweet in the TweetStore, for full-text search. Each
+ * word maps to a PostingList of the IDs of the tweets that contain it. Tweets are indexed in ID order by a single
+ * indexer thread: each post queues a request to bring the index up to date with the store, unless one is queued
+ * already, so a tweet becomes searchable shortly after its author's post returns, and posts never wait for the
+ * index or for each other.
+ *
+ * A query is a list of words that must all appear, and clauses of such words can be joined with OR, as in
+ * "coffee morning OR tea". Matches are found newest first by walking the posting lists of a clause down
+ * together, and can be limited to the tweets of users under one group or of the users one user follows.
+ *
+ * Only the indexer thread writes to the index, after the constructor. Searches take no lock: they read the posting lists while tweets are added, see only the tweets indexed when they began,
+ * and so never hold up a post however long they run.
+ */
+public class TweetIndex implements TweetListener {
+    /** The cursor that starts a search at the newest tweet. */
+    public static final int NEWEST = Integer.MAX_VALUE;
+
+    private static final int MAX_SCANNED = 100000; // Matches looked at for one page before returning what was found
+
+    private final UserDirectory userDirectory;
+    private final Map<String, PostingList> postings;
+    private final ExecutorService indexer;
+    private final AtomicBoolean queued = new AtomicBoolean(); // Whether a catch-up is queued and not yet started
+    private volatile int indexedCount; // Tweets in the store indexed so far, written after each is indexed
+
+    /** Constructs an index of the tweets of the users in the directory, indexing those already posted. */
+    public TweetIndex(UserDirectory userDirectory) {
+        this.userDirectory = userDirectory;
+        this.postings = new ConcurrentHashMap<>();
+        catchUp();
+        this.indexer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tweet-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void tweetPosted(User author, Tweet tweet) {
+        // A catch-up that has not started yet will see this tweet, since it was stored before it was reported
+        if (queued.compareAndSet(false, true)) {
+            try {
+                indexer.execute(() -> {
+                    queued.set(false);
+                    catchUp();
+                });
+            } catch (RejectedExecutionException e) {
+                // The index has been closed
+            }
+        }
+    }
+
+    /** Stops indexing. Tweets posted afterwards are not indexed. */
+    public void close() {
+        indexer.shutdownNow();
+    }
+
+    // Indexes every tweet appended to the store since the last call, in ID order, so each posting list stays
+    // sorted even when posts on different threads report their tweets out of order. Runs on the indexer thread,
+    // or in the constructor before it starts.
+    private void catchUp() {
+        TweetStore store = TweetStore.getInstance();
+        int storeSize = store.size();
+        for (; indexedCount < storeSize; indexedCount++) {
+            Tweet tweet = store.get(indexedCount);
+            for (String word : words(tweet.getBody())) {
+                PostingList list = postings.get(word);
+                if (list == null) {
+                    list = new PostingList();
+                    postings.put(word, list);
+                }
+                list.add(tweet.getId());
+            }
+        }
+    }
+
+    /**
+     * Returns up to limit of the tweets matching the query, newest first, starting below the cursor: NEWEST for
+     * the first page, then the cursor of the page before. If group is not null only tweets by users under it
+     * match, and if follower is not null only tweets by the follower and the users it follows. A page may hold
+     * fewer tweets than limit while hasMore() is still true, if many matches had to be passed over.
+     */
+    public SearchPage search(String query, UserGroup group, User follower, int cursor, int limit) {
+        // Tweets at or above the indexed count may be in some of their posting lists but not yet in all
+        int indexed = indexedCount;
+        List<PostingList.Cursor[]> clauses = parse(query);
+        List<Tweet> tweets = new ArrayList<>();
+        int candidate = Math.min(cursor, indexed) - 1;
+        int scanned = 0;
+        while (tweets.size() < limit && scanned < MAX_SCANNED) {
+            int match = -1;
+            for (PostingList.Cursor[] clause : clauses) {
+                match = Math.max(match, nextMatch(clause, candidate));
+            }
+            if (match < 0) {
+                return new SearchPage(tweets, 0, false);
+            }
+            scanned++;
+            Tweet tweet = TweetStore.getInstance().get(match);
+            if (matchesScope(tweet, group, follower)) {
+                tweets.add(tweet);
+            }
+            candidate = match - 1;
+        }
+        return new SearchPage(tweets, candidate + 1, candidate >= 0);
+    }
+
+    /** Returns the number of distinct words indexed. */
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    // Returns the newest tweet ID of at most max that is in every posting list of the clause, or -1 if there is
+    // none, by lowering the bound to each list's floor in turn until they all agree.
+    private static int nextMatch(PostingList.Cursor[] clause, int max) {
+        int agreed = 0;
+        int i = 0;
+        while (max >= 0 && agreed < clause.length) {
+            int floor = clause[i].floor(max);
+            if (floor == max) {
+                agreed++;
+            } else {
+                max = floor;
+                agreed = 1;
+            }
+            i = (i + 1) % clause.length;
+        }
+        return max < 0 ? -1 : max;
+    }
+
+    private boolean matchesScope(Tweet tweet, UserGroup group, User follower) {
+        User author = userDirectory.findById(tweet.getAuthorId());
+        if (author == null) {
+            return false;
+        }
+        if (group != null && !group.contains(author)) {
+            return false;
+        }
+        return follower == null || author == follower || follower.isFollowing(author);
+    }
+
+    // Splits the query on OR into clauses, each a cursor over the posting list of every word it holds. A clause
+    // with a word that was never posted cannot match and is left out.
+    private List<PostingList.Cursor[]> parse(String query) {
+        List<PostingList.Cursor[]> clauses = new ArrayList<>();
+        for (String clause : query.split("\\s+OR\\s+")) {
+            Set<String> words = words(clause);
+            List<PostingList.Cursor> cursors = new ArrayList<>();
+            for (String word : words) {
+                PostingList list = postings.get(word);
+                if (list == null) {
+                    cursors = null;
+                    break;
+                }
+                cursors.add(list.cursor());
+            }
+            if (cursors != null && !cursors.isEmpty()) {
+                clauses.add(cursors.toArray(new PostingList.Cursor[0]));
+            }
+        }
+        return clauses;
+    }
+
+    // Splits text into its distinct lower-case words.
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}#@']+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,12 @@
+package minitwitter;
+
+/**
+ * Listener interface for anything that needs to react to tweets as they are posted, such as the
+ * statistics service. Listeners are registered with User.addTweetListener() and are called once per
+ * tweet, on the thread that posted it.
+ */
+public interface TweetListener {
+
+    /** Called after the author has posted the tweet and it has been delivered to the author's feed. */
+    void tweetPosted(User author, Tweet tweet);
+}
@@ -0,0 +1,83 @@
+package minitwitter;
+
+/**
+ * TweetStore is the single, append-only home of every Tweet. Each tweet is stored exactly once and is given
+ * the next ID in posting order, so its ID doubles as its position in the store. Feeds and timelines only
+ * hold these IDs. An append claims its ID from the AppendOnlyArray without a lock, and lookups take none either.
+ * While a WriteAheadLog is set appends are serialized instead, so the log gets its records in ID order. The
+ * store is implemented with a Singleton Pattern, since every user shares it.
+ */
+public class TweetStore {
+    private static final TweetStore instance = new TweetStore(); // Singleton instance
+
+    private AppendOnlyArray<Tweet> tweets;
+    private volatile WriteAheadLog writeAheadLog; // Records each appended tweet when set
+
+    private TweetStore() {
+        this.tweets = new AppendOnlyArray<>();
+    }
+
+    /**
+     * Gets the single instance of TweetStore.
+     *
+     * @return single instance of TweetStore
+     */
+    public static TweetStore getInstance() {
+        return instance;
+    }
+
+    /**
+     * Sets the log that records tweets from now on, or null to stop logging. Tweets are logged as they are
+     * appended, so the log holds them in ID order.
+     */
+    public void setWriteAheadLog(WriteAheadLog log) {
+        this.writeAheadLog = log;
+    }
+
+    /**
+     * Creates and stores a tweet with the next ID. When logging, the log record is encoded before the tweet is
+     * stored, so a tweet that cannot be logged is not stored either and the log stays replayable.
+     */
+    public Tweet append(long authorId, long time, String body, int score, boolean pushed) {
+        WriteAheadLog log = writeAheadLog;
+        if (log != null) {
+            return appendLogged(log, authorId, time, body, score, pushed);
+        }
+        int id = tweets.claim();
+        Tweet tweet = new Tweet(id, authorId, time, body, score, pushed);
+        tweets.set(id, tweet);
+        return tweet;
+    }
+
+    // Appends and logs a tweet while holding the store's lock, so no other append claims an ID in between and
+    // the ID the record is encoded with is the one the tweet gets.
+    private synchronized Tweet appendLogged(WriteAheadLog log, long authorId, long time, String body, int score,
+            boolean pushed) {
+        Tweet tweet = new Tweet(tweets.claimedCount(), authorId, time, body, score, pushed);
+        byte[] record = log.encodeTweet(tweet);
+        tweets.add(tweet);
+        log.logEncodedTweet(record);
+        return tweet;
+    }
+
+    /** Returns the tweet with the given ID. */
+    public Tweet get(int id) {
+        return tweets.get(id);
+    }
+
+    /**
+     * Returns the number of tweets stored with none missing before them. Tweets being appended on other threads
+     * may hold higher IDs already; once nothing is being posted, this is the number of stored tweets.
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * Returns the ID the next tweet will get. Every tweet with a lower ID has been stored or is being stored on
+     * another thread.
+     */
+    public int nextId() {
+        return tweets.claimedCount();
+    }
+}
@@ -0,0 +1,635 @@
+package minitwitter;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * User class that structures an Observer pattern amongst other Users.
+ * Users can follow (observe) another user, and be followed by a User or that same User back (observed),
+ * so Users are both Observers and Observable within the design pattern.
+ *
+ * Tweets are delivered in one of two ways. Users below the pull threshold push each tweet into every
+ * follower's news feed when it is posted. Users at or above the threshold only keep the tweet in their own
+ * timeline, and followers merge those timelines in when they read their feed. Each user keeps the followings
+ * it pulls from in a set of their own, so a read merges only those few timelines and the news feed answers for
+ * the rest. A user that starts being pulled from adds itself to that set in each follower before the post
+ * that crossed the threshold returns.
+ *
+ * News feeds and pulled timelines are bounded by the feed capacity, so the oldest tweets drop out of them as new
+ * ones arrive. Feeds are read a page at a time with a cursor, which is the ID of the last tweet already read.
+ *
+ * Users can be followed and can post from many threads at once. Each user guards its own follow sets and feeds
+ * with its own lock, so threads working on different users never contend, and a thread never holds more than
+ * one user's lock at a time. Pushed tweets are handed to the FanoutPipeline, which delivers them to followers
+ * in the background, and feeds keep tweet IDs sorted as deliveries from different authors arrive.
+ */
+public class User implements UserInterface {
+    /** Cursor that reads a feed from its oldest retained tweet. */
+    public static final int NO_CURSOR = -1;
+
+    private static volatile int pullThreshold = 1000; // Follower count at which tweets stop being pushed
+    private static volatile int feedCapacity = 10000; // Most tweet IDs kept in a feed or pulled timeline
+    private static List<TweetListener> tweetListeners = new CopyOnWriteArrayList<>();
+    private static volatile FanoutPipeline fanoutPipeline = new FanoutPipeline(); // Delivers pushed tweets
+    private static volatile WriteAheadLog writeAheadLog; // Records follows when set
+    private static volatile SentimentMatcher sentimentMatcher = SentimentMatcher.positive(); // Scores each tweet once at post time
+
+    private final Object lock = new Object(); // Guards the follow sets, feeds and timeline
+    private long id;
+    private int index; // Dense index from the UserRegistry, used in the follow sets
+    private String name;
+    private IntHashSet followers; // Indexes of the users following this user
+    private IntHashSet followings; // Indexes of the users this user follows, in the order they were followed
+    private IntList followedSince; // Per following position, the first tweet ID posted after the follow
+    private IntHashSet pulledFollowings; // Indexes of the followed users whose tweets this user pulls
+    private boolean timelinePulled; // Whether any of this user's tweets have been pulled instead of pushed
+    private FeedBuffer pulledTimeline; // IDs of this user's tweets that followers pull instead of receiving
+    private FeedBuffer newsFeed; // IDs of tweets pushed to this user, including its own
+    private int tweetCount; // Tweets posted by this user, including ones evicted from its feed
+    private int positiveTweetCount;
+    private int groupedTweetCount; // Tweets added to the aggregates of the groups above, under UserGroup's walk lock
+    private int groupedPositiveCount; // Those tweets that are positive
+    private List<FeedListener> feedListeners;
+    private List<User> pullSubscribers; // Followers with feed listeners, told about tweets they pull from this user
+    private long creationTime;
+    private AtomicLong lastUpdateTime;
+    private TreePosition position;
+
+    /**
+     * Generates a unique ID and sets the user's name.
+     */
+    public User(String name) {
+        this(IdGenerator.nextId(), name, System.currentTimeMillis());
+    }
+
+    /** Recreates a user with a known ID and creation time, as when replaying the WriteAheadLog. */
+    User(long id, String name, long creationTime) {
+        IdRegistry.getInstance().register(id);
+        this.id = id;
+        this.index = UserRegistry.getInstance().register(this);
+        this.name = name;
+        this.followers = new IntHashSet();
+        this.followings = new IntHashSet();
+        this.followedSince = new IntList();
+        this.pulledFollowings = new IntHashSet();
+        this.pulledTimeline = new FeedBuffer(feedCapacity);
+        this.newsFeed = new FeedBuffer(feedCapacity);
+        this.feedListeners = new CopyOnWriteArrayList<>();
+        this.pullSubscribers = new CopyOnWriteArrayList<>();
+        this.creationTime = creationTime;
+        this.position = new TreePosition();
+        this.lastUpdateTime = new AtomicLong(this.creationTime);
+    }
+
+    /** Returns the follower count at which a user's tweets are pulled by followers instead of pushed. */
+    public static int getPullThreshold() {
+        return pullThreshold;
+    }
+
+    /** Sets the follower count at which a user's tweets are pulled by followers instead of pushed. */
+    public static void setPullThreshold(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Pull threshold must be at least 1");
+        }
+        pullThreshold = threshold;
+    }
+
+    /** Returns the number of tweet IDs kept in each news feed and pulled timeline. */
+    public static int getFeedCapacity() {
+        return feedCapacity;
+    }
+
+    /** Sets the number of tweet IDs kept in the news feed and pulled timeline of users created from now on. */
+    public static void setFeedCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Feed capacity must be at least 1");
+        }
+        feedCapacity = capacity;
+    }
+
+    /** Sets the matcher used to score the sentiment of tweets posted from now on. */
+    public static void setSentimentMatcher(SentimentMatcher matcher) {
+        sentimentMatcher = matcher;
+    }
+
+    /** Returns the pipeline that delivers pushed tweets to followers. */
+    public static FanoutPipeline getFanoutPipeline() {
+        return fanoutPipeline;
+    }
+
+    /** Sets the pipeline that delivers pushed tweets to followers from now on. */
+    public static void setFanoutPipeline(FanoutPipeline pipeline) {
+        fanoutPipeline = pipeline;
+    }
+
+    /**
+     * Sets the log that records follows and posts from now on, or null to stop logging. Posts are logged by
+     * the TweetStore, which should be given the same log.
+     */
+    public static void setWriteAheadLog(WriteAheadLog log) {
+        writeAheadLog = log;
+    }
+
+    /** Registers a listener that is called for every tweet posted by any user. */
+    public static void addTweetListener(TweetListener listener) {
+        tweetListeners.add(listener);
+    }
+
+    /** Removes a previously registered tweet listener. */
+    public static void removeTweetListener(TweetListener listener) {
+        tweetListeners.remove(listener);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public void accept(AnalysisVisitor visitor) {
+        visitor.visit(this);
+    }
+
+    public void follow(User user) {
+        follow(user, -1);
+    }
+
+    /**
+     * Follows the user. The cut-off is the first tweet ID to receive from the user, or -1 to take the next ID
+     * to be posted; a known cut-off is passed when replaying the WriteAheadLog.
+     */
+    void follow(User user, int cutoff) {
+        WriteAheadLog log = writeAheadLog;
+        int since;
+        boolean pulls;
+        // The cut-off is taken under the followee's lock, so each of its tweets is either pushed to this
+        // user, pulled by this user, or was posted before the follow. A followee that starts being pulled from
+        // after this adds itself to pulledFollowings, since this user is already among its followers.
+        synchronized (user.lock) {
+            if (!user.followers.add(index)) {
+                return;
+            }
+            since = (cutoff < 0) ? TweetStore.getInstance().nextId() : cutoff;
+            pulls = user.timelinePulled;
+            if (log != null) {
+                log.logFollow(this, user, since);
+            }
+        }
+        synchronized (lock) {
+            followings.add(user.index);
+            followedSince.add(since);
+            if (pulls) {
+                pulledFollowings.add(user.index);
+            }
+            if (!feedListeners.isEmpty()) {
+                user.pullSubscribers.add(this);
+            }
+        }
+        sync(log);
+        Metrics.getInstance().followRecorded();
+    }
+
+    /**
+     * Registers a listener that is told about every tweet that reaches this user's feed from now on. Tweets from
+     * followed users whose tweets are pulled are reported when they are posted.
+     */
+    public void addFeedListener(FeedListener listener) {
+        List<User> subscribeTo = Collections.emptyList();
+        synchronized (lock) {
+            if (feedListeners.isEmpty()) {
+                subscribeTo = resolve(followings.toArray());
+            }
+            feedListeners.add(listener);
+        }
+        for (User following : subscribeTo) {
+            following.pullSubscribers.add(this);
+        }
+    }
+
+    /** Removes a previously registered feed listener. */
+    public void removeFeedListener(FeedListener listener) {
+        List<User> unsubscribeFrom = Collections.emptyList();
+        synchronized (lock) {
+            if (feedListeners.remove(listener) && feedListeners.isEmpty()) {
+                unsubscribeFrom = resolve(followings.toArray());
+            }
+        }
+        for (User following : unsubscribeFrom) {
+            following.pullSubscribers.remove(this);
+        }
+    }
+
+    /**
+     * Posts a tweet to this user's own feed and returns once it is there. Pushed tweets are then delivered to
+     * followers by the FanoutPipeline, and the returned future completes when every follower has received it.
+     */
+    public CompletableFuture<Tweet> postTweet(String message) {
+        return post(message, System.currentTimeMillis(), null);
+    }
+
+    /**
+     * Posts a tweet with the given time. Whether it is pushed is decided by the pull threshold when pushed is
+     * null; a known decision is passed when replaying the WriteAheadLog.
+     */
+    CompletableFuture<Tweet> post(String message, long time, Boolean pushed) {
+        long start = System.nanoTime();
+        int score = sentimentMatcher.score(message);
+        Tweet tweet;
+        CompletableFuture<Tweet> delivered;
+        int pushedTo = 0;
+        List<User> startedPulling = Collections.emptyList(); // Followers to tell this user is now pulled from
+        synchronized (lock) {
+            if (pushed == null) {
+                pushed = followers.size() < pullThreshold;
+            }
+            tweet = TweetStore.getInstance().append(id, time, message, score, pushed);
+            newsFeed.insertSorted(tweet.getId());
+            tweetCount++;
+            if (tweet.isPositive()) {
+                positiveTweetCount++;
+            }
+            if (pushed) {
+                // Submitted under the lock so that this user's tweets are queued in posting order
+                pushedTo = followers.size();
+                delivered = fanoutPipeline.submit(tweet, resolve(followers.toArray()));
+            } else {
+                pulledTimeline.insertSorted(tweet.getId());
+                delivered = CompletableFuture.completedFuture(tweet);
+                if (!timelinePulled) {
+                    timelinePulled = true;
+                    startedPulling = resolve(followers.toArray());
+                }
+            }
+        }
+        for (User follower : startedPulling) {
+            follower.addPulledFollowing(index);
+        }
+        updateLastUpdateTime(tweet.getTime());
+        UserGroup.tweetPosted(this, tweet);
+        List<Tweet> posted = Collections.singletonList(tweet);
+        fireTweetsAdded(posted);
+        if (!tweet.isPushed()) {
+            for (User subscriber : pullSubscribers) {
+                subscriber.fireTweetsAdded(posted);
+            }
+        }
+        for (TweetListener listener : tweetListeners) {
+            listener.tweetPosted(this, tweet);
+        }
+        sync(writeAheadLog);
+        Metrics.getInstance().postRecorded(this, System.nanoTime() - start, pushedTo);
+        return delivered;
+    }
+
+    // Waits for the log records made by this thread to be written, once no user lock is held.
+    private static void sync(WriteAheadLog log) {
+        if (log != null) {
+            try {
+                log.sync();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the write-ahead log", e);
+            }
+        }
+    }
+
+    /** Adds a batch of tweets delivered by the FanoutPipeline to this user's feed. */
+    void receive(List<Tweet> tweets) {
+        long latest = 0;
+        synchronized (lock) {
+            for (Tweet tweet : tweets) {
+                newsFeed.insertSorted(tweet.getId());
+                latest = Math.max(latest, tweet.getTime());
+            }
+        }
+        updateLastUpdateTime(latest);
+        UserGroup.feedUpdated(this, latest);
+        fireTweetsAdded(tweets);
+    }
+
+    private void addPulledFollowing(int following) {
+        synchronized (lock) {
+            pulledFollowings.add(following);
+        }
+    }
+
+    private void fireTweetsAdded(List<Tweet> tweets) {
+        for (FeedListener listener : feedListeners) {
+            listener.tweetsAdded(this, tweets);
+        }
+    }
+
+    private static List<User> resolve(int[] indexes) {
+        UserRegistry registry = UserRegistry.getInstance();
+        List<User> users = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            users.add(registry.get(index));
+        }
+        return users;
+    }
+
+    private void updateLastUpdateTime(long time) {
+        lastUpdateTime.accumulateAndGet(time, Math::max);
+    }
+
+    /**
+     * Reads the page of the news feed that follows the cursor: up to limit of the oldest tweets with IDs
+     * greater than the cursor, in posting order. Timelines of followed users whose tweets are pulled are
+     * merged in. Pass NO_CURSOR to start from the oldest retained tweet.
+     */
+    public FeedPage getTweets(int sinceCursor, int limit) {
+        int[] ids = readFeed(sinceCursor, limit, false);
+        boolean hasMore = ids.length > limit;
+        if (hasMore) {
+            ids = Arrays.copyOf(ids, limit);
+        }
+        int nextCursor = (ids.length > 0) ? ids[ids.length - 1] : sinceCursor;
+        return new FeedPage(resolveTweets(ids), nextCursor, hasMore);
+    }
+
+    /** Returns up to limit of the newest tweets in the news feed, in posting order. */
+    public List<Tweet> getLatestTweets(int limit) {
+        return resolveTweets(getLatestFeedIds(limit));
+    }
+
+    /** Returns the IDs of the newest tweets in the news feed, up to the feed capacity, in posting order. */
+    public int[] getFeedIds() {
+        return getLatestFeedIds(feedCapacity);
+    }
+
+    /** Returns the newest tweets in the news feed, up to the feed capacity, in posting order. */
+    public List<Tweet> getFeed() {
+        return resolveTweets(getFeedIds());
+    }
+
+    /** Returns the text of the newest tweets in the news feed, up to the feed capacity, in posting order. */
+    public List<String> getTweets() {
+        TweetStore store = TweetStore.getInstance();
+        int[] ids = getFeedIds();
+        List<String> tweets = new ArrayList<>(ids.length);
+        for (int tweetId : ids) {
+            tweets.add(store.get(tweetId).getBody());
+        }
+        return tweets;
+    }
+
+    private int[] getLatestFeedIds(int limit) {
+        int[] ids = readFeed(NO_CURSOR, limit, true);
+        return (ids.length > limit) ? Arrays.copyOfRange(ids, ids.length - limit, ids.length) : ids;
+    }
+
+    /**
+     * Merges this user's feed with the pulled timelines of the followings it pulls from. Reading forward takes up
+     * to limit + 1 of the oldest IDs after the cursor from each source, so the caller can tell whether more
+     * follow; reading the latest takes up to limit of the newest IDs from each source.
+     */
+    private int[] readFeed(int cursor, int limit, boolean latest) {
+        int perSource = latest ? limit : (int) Math.min(Integer.MAX_VALUE, limit + 1L);
+        UserRegistry registry = UserRegistry.getInstance();
+        int[] merged;
+        int[][] pulledFrom;
+        synchronized (lock) {
+            merged = latest ? newsFeed.latest(0, perSource) : newsFeed.after(cursor, perSource);
+            pulledFrom = pulledFollowings();
+            Metrics.getInstance().feedReadRecorded(newsFeed.size());
+        }
+        for (int i = 0; i < pulledFrom[0].length; i++) {
+            int firstId = Math.max(cursor + 1, pulledFrom[1][i]);
+            int[] pulled = registry.get(pulledFrom[0][i]).pulledTweetIds(firstId, perSource, latest);
+            if (pulled.length > 0) {
+                merged = merge(merged, pulled);
+            }
+        }
+        return merged;
+    }
+
+    // Returns the indexes of the followings this user pulls from and the cut-off of each; called under the lock.
+    // A following can be added to pulledFollowings just before it is added to followings, and is left out then.
+    private int[][] pulledFollowings() {
+        int[] indexes = new int[pulledFollowings.size()];
+        int[] since = new int[indexes.length];
+        int count = 0;
+        for (int i = 0; i < pulledFollowings.size(); i++) {
+            int position = followings.indexOf(pulledFollowings.get(i));
+            if (position >= 0) {
+                indexes[count] = pulledFollowings.get(i);
+                since[count++] = followedSince.get(position);
+            }
+        }
+        return new int[][] { Arrays.copyOf(indexes, count), Arrays.copyOf(since, count) };
+    }
+
+    private static List<Tweet> resolveTweets(int[] ids) {
+        TweetStore store = TweetStore.getInstance();
+        List<Tweet> tweets = new ArrayList<>(ids.length);
+        for (int tweetId : ids) {
+            tweets.add(store.get(tweetId));
+        }
+        return tweets;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public TreePosition getPosition() {
+        return position;
+    }
+
+    /** Returns this user's dense index in the UserRegistry. */
+    public int getIndex() {
+        return index;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    /** Returns the time of the latest tweet in this user's feed, including pulled tweets. */
+    public long getLastUpdateTime() {
+        UserRegistry registry = UserRegistry.getInstance();
+        long latest = lastUpdateTime.get();
+        int[][] pulledFrom;
+        synchronized (lock) {
+            pulledFrom = pulledFollowings();
+        }
+        for (int i = 0; i < pulledFrom[0].length; i++) {
+            int[] pulled = registry.get(pulledFrom[0][i]).pulledTweetIds(pulledFrom[1][i], 1, true);
+            if (pulled.length > 0) {
+                latest = Math.max(latest, TweetStore.getInstance().get(pulled[0]).getTime());
+            }
+        }
+        return latest;
+    }
+
+    /** Returns a read-only view of the users this user follows, in the order they were followed. */
+    public List<User> getFollowings() {
+        return new AbstractList<User>() {
+            @Override
+            public User get(int position) {
+                synchronized (lock) {
+                    return UserRegistry.getInstance().get(followings.get(position));
+                }
+            }
+
+            @Override
+            public int size() {
+                synchronized (lock) {
+                    return followings.size();
+                }
+            }
+        };
+    }
+
+    /** Returns the UserRegistry indexes of the users this user follows, in the order they were followed. */
+    public int[] getFollowingIndexes() {
+        synchronized (lock) {
+            return followings.toArray();
+        }
+    }
+
+    /** Returns whether this user follows the given user. */
+    public boolean isFollowing(User user) {
+        synchronized (lock) {
+            return followings.contains(user.index);
+        }
+    }
+
+    /** Returns the number of users following this user. */
+    public int getFollowerCount() {
+        synchronized (lock) {
+            return followers.size();
+        }
+    }
+
+    /** Returns the number of tweets this user has posted, including ones that have left its feed. */
+    public int getTweetCount() {
+        synchronized (lock) {
+            return tweetCount;
+        }
+    }
+
+    /** Returns the number of tweets this user has posted with a positive sentiment score. */
+    public int getPositiveTweetCount() {
+        synchronized (lock) {
+            return positiveTweetCount;
+        }
+    }
+
+    // Counts a tweet as added to the aggregates of the groups above this user; called under its UserGroup walk lock.
+    void tweetGrouped(boolean positive) {
+        groupedTweetCount++;
+        if (positive) {
+            groupedPositiveCount++;
+        }
+    }
+
+    // Returns the tweets added to the aggregates of the groups above, and how many of them are positive; called
+    // under UserGroup's walk locks.
+    int[] getGroupedCounts() {
+        return new int[] {groupedTweetCount, groupedPositiveCount};
+    }
+
+    // Returns up to max IDs from this user's pulled timeline that are at least the given tweet ID, either the
+    // oldest or the newest of them, in posting order.
+    private int[] pulledTweetIds(int firstId, int max, boolean latest) {
+        synchronized (lock) {
+            return latest ? pulledTimeline.latest(firstId, max) : pulledTimeline.after(firstId - 1, max);
+        }
+    }
+
+    /**
+     * Copies the state a Snapshot needs, under this user's lock: the indexes of the followed users, the cut-off for
+     * each, the news feed and the pulled timeline, then the tweet count and positive tweet count.
+     */
+    int[][] captureState() {
+        synchronized (lock) {
+            return new int[][] {
+                followings.toArray(),
+                followedSince.toArray(),
+                newsFeed.latest(0, newsFeed.getCapacity()),
+                pulledTimeline.latest(0, pulledTimeline.getCapacity()),
+                {tweetCount, positiveTweetCount}
+            };
+        }
+    }
+
+    /**
+     * Restores the state captured by captureState() when loading a Snapshot. The followed users' follower sets
+     * are filled in by restoreFollowers(), once every user exists.
+     */
+    void restoreState(int[][] state, long lastUpdateTime) {
+        synchronized (lock) {
+            int[] followingIndexes = state[0];
+            followings = new IntHashSet(followingIndexes.length);
+            for (int i = 0; i < followingIndexes.length; i++) {
+                followings.add(followingIndexes[i]);
+                followedSince.add(state[1][i]);
+            }
+            for (int tweetId : state[2]) {
+                newsFeed.insertSorted(tweetId);
+            }
+            for (int tweetId : state[3]) {
+                pulledTimeline.insertSorted(tweetId);
+            }
+            timelinePulled = state[3].length > 0;
+            tweetCount = state[4][0];
+            positiveTweetCount = state[4][1];
+            // Restored before the user joins a group, which then brings these tweets into the aggregates
+            groupedTweetCount = tweetCount;
+            groupedPositiveCount = positiveTweetCount;
+        }
+        updateLastUpdateTime(lastUpdateTime);
+    }
+
+    /**
+     * Restores the follower set while loading a Snapshot, once every user's state is restored. If this user's
+     * tweets are pulled, it is added to each follower's pulled followings.
+     */
+    void restoreFollowers(int[] followerIndexes, int from, int to) {
+        boolean pulls;
+        synchronized (lock) {
+            followers = new IntHashSet(to - from);
+            for (int i = from; i < to; i++) {
+                followers.add(followerIndexes[i]);
+            }
+            pulls = timelinePulled;
+        }
+        if (pulls) {
+            UserRegistry registry = UserRegistry.getInstance();
+            for (int i = from; i < to; i++) {
+                registry.get(followerIndexes[i]).addPulledFollowing(index);
+            }
+        }
+    }
+
+    /** Returns the last update time of this user's own feed, without pulled tweets, for a Snapshot. */
+    long getOwnLastUpdateTime() {
+        return lastUpdateTime.get();
+    }
+
+    // Merges two sorted arrays of tweet IDs.
+    private static int[] merge(int[] left, int[] right) {
+        int[] merged = new int[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < left.length && j < right.length) {
+            merged[k++] = (left[i] < right[j]) ? left[i++] : right[j++];
+        }
+        while (i < left.length) {
+            merged[k++] = left[i++];
+        }
+        while (j < right.length) {
+            merged[k++] = right[j++];
+        }
+        return merged;
+    }
+}
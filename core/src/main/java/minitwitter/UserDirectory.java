@@ -0,0 +1,64 @@
+package minitwitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * UserDirectory is the central index of every User that has been added through the admin panel.
+ * Users can be looked up by ID or by name in constant time, and by name prefix in logarithmic time,
+ * so following and autocompleting names does not need to walk the user tree. It can be read and added to
+ * from many threads at once.
+ */
+public class UserDirectory {
+    private Map<Long, User> usersById;
+    private NavigableMap<String, User> usersByName; // Sorted so a prefix maps to one contiguous range
+
+    /** Constructs an empty directory. */
+    public UserDirectory() {
+        this.usersById = new ConcurrentHashMap<>();
+        this.usersByName = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Adds a user to the directory. If another user already has the same name, lookups by
+     * that name keep returning the user that was added first.
+     */
+    public void add(User user) {
+        usersById.put(user.getId(), user);
+        usersByName.putIfAbsent(user.getName(), user);
+    }
+
+    /** Returns the user with the given ID, or null if there is none. */
+    public User findById(long id) {
+        return usersById.get(id);
+    }
+
+    /** Returns the user with the given name, or null if there is none. */
+    public User findByName(String name) {
+        return usersByName.get(name);
+    }
+
+    /** Returns up to limit user names that start with the given prefix, in alphabetical order. */
+    public List<String> findNamesByPrefix(String prefix, int limit) {
+        List<String> names = new ArrayList<>();
+        if (prefix.isEmpty() || limit <= 0) {
+            return names;
+        }
+        for (String name : usersByName.tailMap(prefix, true).keySet()) {
+            if (!name.startsWith(prefix) || names.size() == limit) {
+                break;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    /** Returns the number of users in the directory. */
+    public int size() {
+        return usersById.size();
+    }
+}
@@ -0,0 +1,322 @@
+package minitwitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UserGroup class that structures the Composite design pattern, by containing lists of
+ * both Users (leaves), and UserGroups (composites), thus enabling the creation of the recursive,
+ * tree-like structure of the Composite pattern. Every member belongs to exactly one group, and each group keeps
+ * aggregates of its whole subtree: how many users and groups are under it, how many tweets those users have
+ * posted and how many were positive, and which of them was updated last. Adding or removing a member, or posting
+ * a tweet, updates only the group it happens in and that group's ancestors, so together with the TreePosition of
+ * each member, questions about a whole subtree are answered in constant time without walking it.
+ *
+ * Members are added and removed under TreePosition.LOCK, but posts and deliveries update the aggregates without
+ * it, through adders and a compare-and-set of the latest update. A post walks up the tree holding only the walk
+ * lock its author falls in, one of a few, so users posting in parallel rarely wait for each other, while adding
+ * or removing a member takes every walk lock. A walk therefore never sees a member half moved, and a user always
+ * brings in or takes out exactly the tweets its walks have counted, so the tweet counts of every group match a
+ * recount of its users. A user that is receiving pushed tweets counts as updated, as the AnalysisVisitor sees
+ * it; tweets pulled from users past the pull threshold reach no feed when posted, so they update only their
+ * author here.
+ */
+public class UserGroup implements UserInterface {
+    private static final Update NO_UPDATE = new Update(null, 0);
+    private static final ReentrantLock[] WALK_LOCKS = newWalkLocks(); // Ordered against moves, by author index
+
+    private long id;
+    private String name;
+    private List<UserInterface> members;
+    private long creationTime;
+    private TreePosition position;
+    private volatile int subtreeUserCount; // Users anywhere under this group, changed under TreePosition.LOCK
+    private volatile int subtreeGroupCount; // Groups anywhere under this group, changed under TreePosition.LOCK
+    private final LongAdder subtreeTweetCount; // Tweets posted by users anywhere under this group
+    private final LongAdder subtreePositiveCount; // Those tweets with a positive score
+    private final AtomicReference<Update> lastUpdate; // Latest update of a user under this group
+
+    // A user and the time it was updated, replaced as one so the two always agree.
+    private static class Update {
+        private final User user;
+        private final long time;
+
+        Update(User user, long time) {
+            this.user = user;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Generates a unique ID and sets the group's name.
+     */
+    public UserGroup(String name) {
+        this(IdGenerator.nextId(), name, System.currentTimeMillis());
+    }
+
+    /** Recreates a group with a known ID and creation time, as when replaying the WriteAheadLog. */
+    UserGroup(long id, String name, long creationTime) {
+        IdRegistry.getInstance().register(id);
+        this.id = id;
+        this.name = name;
+        this.members = new ArrayList<>();
+        this.creationTime = creationTime;
+        this.position = new TreePosition();
+        this.subtreeTweetCount = new LongAdder();
+        this.subtreePositiveCount = new LongAdder();
+        this.lastUpdate = new AtomicReference<>(NO_UPDATE);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void accept(AnalysisVisitor visitor) {
+        visitor.visit(this);
+    }
+
+    /**
+     * Adds a member, which must not belong to a group yet. A group with members of its own may be added, as long as
+     * this group is not among them. Takes O(log depth) for a user, and that per node moved for a group.
+     */
+    public void add(UserInterface userInterface) {
+        synchronized (TreePosition.LOCK) {
+            if (userInterface.getPosition().getParent() != null) {
+                throw new IllegalArgumentException(userInterface.getName() + " already belongs to a group");
+            }
+            if (userInterface == this || isUnder(this, userInterface)) {
+                throw new IllegalArgumentException("A group cannot be added under itself");
+            }
+            lockWalks();
+            try {
+                synchronized (this) {
+                    userInterface.getPosition().attach(this, members.size());
+                    members.add(userInterface);
+                }
+                TreePosition.relocate(userInterface);
+                addToSubtreeCounts(userInterface, 1);
+            } finally {
+                unlockWalks();
+            }
+        }
+    }
+
+    /**
+     * Removes a member, together with everything under it, in constant time for a user. The last member takes
+     * the removed member's place, so the order of the remaining members can change.
+     */
+    public void remove(UserInterface userInterface) {
+        synchronized (TreePosition.LOCK) {
+            TreePosition memberPosition = userInterface.getPosition();
+            if (memberPosition.getParent() != this) {
+                return;
+            }
+            lockWalks();
+            try {
+                synchronized (this) {
+                    int index = memberPosition.getIndex();
+                    UserInterface last = members.remove(members.size() - 1);
+                    if (last != userInterface) {
+                        members.set(index, last);
+                        last.getPosition().setIndex(index);
+                    }
+                }
+                addToSubtreeCounts(userInterface, -1);
+                memberPosition.detach();
+                TreePosition.relocate(userInterface);
+            } finally {
+                unlockWalks();
+            }
+        }
+    }
+
+    public List<UserInterface> getMembers() {
+        return members;
+    }
+
+    /** Returns the number of members; safe to call while members are being added on another thread. */
+    public synchronized int getMemberCount() {
+        return members.size();
+    }
+
+    /** Returns the member at the given index; safe to call while members are being added on another thread. */
+    public synchronized UserInterface getMember(int index) {
+        return members.get(index);
+    }
+
+    /** Returns the index of the member, or -1 if it is not in this group. */
+    public int indexOf(UserInterface member) {
+        synchronized (TreePosition.LOCK) {
+            TreePosition memberPosition = member.getPosition();
+            return memberPosition.getParent() == this ? memberPosition.getIndex() : -1;
+        }
+    }
+
+    /** Returns whether the user or group is somewhere under this group, in O(log depth). */
+    public boolean contains(UserInterface userInterface) {
+        synchronized (TreePosition.LOCK) {
+            return isUnder(userInterface, this);
+        }
+    }
+
+    /** Returns the number of users anywhere under this group. */
+    public int getSubtreeUserCount() {
+        return subtreeUserCount;
+    }
+
+    /** Returns the number of groups anywhere under this group, not counting this group. */
+    public int getSubtreeGroupCount() {
+        return subtreeGroupCount;
+    }
+
+    /** Returns the number of tweets posted by users anywhere under this group. */
+    public int getSubtreeTweetCount() {
+        return subtreeTweetCount.intValue();
+    }
+
+    /** Returns the percentage of the tweets posted under this group that are positive, or 0 if there are none. */
+    public float getSubtreePositivePercentage() {
+        long tweets = subtreeTweetCount.sum();
+        if (tweets == 0) {
+            return 0;
+        }
+        return ((float) subtreePositiveCount.sum() / tweets) * 100;
+    }
+
+    /**
+     * Returns the user under this group that was updated last, or null if none has been. Users removed from
+     * under the group may still be returned, since the latest update is not rolled back when they leave.
+     */
+    public User getLastUpdatedUser() {
+        return lastUpdate.get().user;
+    }
+
+    // Adds a tweet just posted to the aggregates of every group above its author, in O(depth), holding the
+    // author's walk lock so the tweet is counted in the groups the author is under at one moment.
+    static void tweetPosted(User author, Tweet tweet) {
+        // A tweet as late as the latest update is newer, as in the StatisticsService
+        Update update = new Update(author, tweet.getTime());
+        ReentrantLock walkLock = WALK_LOCKS[author.getIndex() & (WALK_LOCKS.length - 1)];
+        walkLock.lock();
+        try {
+            author.tweetGrouped(tweet.isPositive());
+            UserGroup group = author.getPosition().getParent();
+            for (; group != null; group = group.position.getParent()) {
+                group.subtreeTweetCount.increment();
+                if (tweet.isPositive()) {
+                    group.subtreePositiveCount.increment();
+                }
+                group.offer(update, true);
+            }
+        } finally {
+            walkLock.unlock();
+        }
+    }
+
+    // Records that pushed tweets up to the given time reached the user's feed, in the groups above it. The walk
+    // stops at the first group that already has a later update, since every group above it has one too.
+    static void feedUpdated(User user, long time) {
+        Update update = new Update(user, time);
+        for (UserGroup group = user.getPosition().getParent(); group != null; group = group.position.getParent()) {
+            if (!group.offer(update, false)) {
+                return;
+            }
+        }
+    }
+
+    // Makes the update this group's latest if it is later than the one held, or as late and ties are taken.
+    // Returns false if the group already held a later update, or one as late when ties are not taken.
+    private boolean offer(Update update, boolean takeTies) {
+        while (true) {
+            Update current = lastUpdate.get();
+            if (update.time < current.time || (update.time == current.time && !takeTies)) {
+                return false;
+            }
+            if (lastUpdate.compareAndSet(current, update)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public TreePosition getPosition() {
+        return position;
+    }
+
+    // Returns whether the node is strictly under the group; must be called while holding TreePosition.LOCK.
+    private static boolean isUnder(UserInterface node, UserInterface group) {
+        return group instanceof UserGroup && TreePosition.ancestorAt(node, group.getPosition().getDepth()) == group;
+    }
+
+    // Adds the aggregates of a member's subtree, counts times sign, to those of this group and its ancestors. A
+    // user brings the tweets its walks have counted, including those it was restored with. Must be called while
+    // holding every walk lock, so no walk is between counting a tweet and reaching the groups above.
+    private void addToSubtreeCounts(UserInterface member, int sign) {
+        int users;
+        int groups;
+        long tweets;
+        long positive;
+        Update update;
+        if (member instanceof UserGroup) {
+            UserGroup memberGroup = (UserGroup) member;
+            users = memberGroup.subtreeUserCount;
+            groups = memberGroup.subtreeGroupCount + 1;
+            tweets = memberGroup.subtreeTweetCount.sum();
+            positive = memberGroup.subtreePositiveCount.sum();
+            update = memberGroup.lastUpdate.get();
+        } else {
+            User user = (User) member;
+            users = 1;
+            groups = 0;
+            int[] grouped = user.getGroupedCounts();
+            tweets = grouped[0];
+            positive = grouped[1];
+            update = new Update(user, user.getLastUpdateTime());
+        }
+        for (UserGroup group = this; group != null; group = group.position.getParent()) {
+            group.subtreeUserCount += sign * users;
+            group.subtreeGroupCount += sign * groups;
+            group.subtreeTweetCount.add(sign * tweets);
+            group.subtreePositiveCount.add(sign * positive);
+            if (sign > 0 && update.user != null) {
+                group.offer(update, false);
+            }
+        }
+    }
+
+    // Creates the walk locks, about two per processor, as a power of two so an author index picks one by masking.
+    private static ReentrantLock[] newWalkLocks() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ReentrantLock[] locks = new ReentrantLock[Integer.highestOneBit(processors * 2)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    // Takes every walk lock, in index order, so no post is walking up the tree until unlockWalks().
+    private static void lockWalks() {
+        for (ReentrantLock lock : WALK_LOCKS) {
+            lock.lock();
+        }
+    }
+
+    private static void unlockWalks() {
+        for (int i = WALK_LOCKS.length - 1; i >= 0; i--) {
+            WALK_LOCKS[i].unlock();
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+}
@@ -1,3 +1,5 @@
+package minitwitter;
+
 /** 
  * Interface class for Users and UserGroups, requiring a getName() function, and an accept() function, taking in an AnalysisVisitor.
  * The AnalysisVisitor is required for implementing the Visitor pattern among Users and UserGroups, 
@@ -14,4 +16,7 @@ public interface UserInterface {
 	 * and positive message percentage.
 	 */
     void accept(AnalysisVisitor visitor);
+
+    /** Returns where this user or group sits in the group tree. */
+    TreePosition getPosition();
 }
@@ -0,0 +1,40 @@
+package minitwitter;
+
+/**
+ * UserRegistry gives every User a dense int index, in creation order, and maps indexes back to Users. The
+ * follow graph is stored as sets of these indexes instead of object references. Lookups take no lock. The
+ * registry is implemented with a Singleton Pattern, since every user shares it.
+ */
+public class UserRegistry {
+    private static final UserRegistry instance = new UserRegistry(); // Singleton instance
+
+    private AppendOnlyArray<User> users;
+
+    private UserRegistry() {
+        this.users = new AppendOnlyArray<>();
+    }
+
+    /**
+     * Gets the single instance of UserRegistry.
+     *
+     * @return single instance of UserRegistry
+     */
+    public static UserRegistry getInstance() {
+        return instance;
+    }
+
+    /** Registers a user and returns its index. */
+    public int register(User user) {
+        return users.add(user);
+    }
+
+    /** Returns the user with the given index. */
+    public User get(int index) {
+        return users.get(index);
+    }
+
+    /** Returns the number of registered users. */
+    public int size() {
+        return users.size();
+    }
+}
@@ -0,0 +1,111 @@
+package minitwitter;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * UserTreeModel class represents the model for the user tree structure. It shows the users and groups of the
+ * MiniTwitterEngine directly, without a tree of nodes of its own: the nodes are the User and UserGroup objects.
+ * The members of a group are only counted once the tree asks for them, which it does when the group is expanded,
+ * and each user or group added later is reported to the tree as a single insertion. Paths are built from the
+ * parent pointers of each TreePosition.
+ */
+public class UserTreeModel implements TreeModel, GroupListener {
+    private UserGroup root;
+    private EventListenerList listeners;
+    private Map<UserGroup, Integer> childCounts; // Members the tree knows of per group, touched only on the event thread
+
+    /** Constructs a UserTreeModel showing the groups of the given engine, and follows the members added to them. */
+    public UserTreeModel(MiniTwitterEngine engine) {
+        this.root = engine.getRoot();
+        this.listeners = new EventListenerList();
+        this.childCounts = new IdentityHashMap<>();
+        engine.addGroupListener(this);
+    }
+
+    @Override
+    public Object getRoot() {
+        return root;
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        return ((UserGroup) parent).getMember(index);
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        if (!(parent instanceof UserGroup)) {
+            return 0;
+        }
+        Integer childCount = childCounts.get(parent);
+        if (childCount == null) {
+            childCount = ((UserGroup) parent).getMemberCount();
+            childCounts.put((UserGroup) parent, childCount);
+        }
+        return childCount;
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        return node instanceof User;
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (!(parent instanceof UserGroup) || child == null) {
+            return -1;
+        }
+        return ((UserGroup) parent).indexOf((UserInterface) child);
+    }
+
+    /** Users and groups cannot be renamed from the tree, so this does nothing. */
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener listener) {
+        listeners.add(TreeModelListener.class, listener);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener listener) {
+        listeners.remove(TreeModelListener.class, listener);
+    }
+
+    /** Returns the path from the root to a group. */
+    public TreePath getPath(UserGroup group) {
+        UserGroup parent = group.getPosition().getParent();
+        return parent == null ? new TreePath(group) : getPath(parent).pathByAddingChild(group);
+    }
+
+    @Override
+    public void memberAdded(final UserGroup group, final UserInterface member, final int index) {
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                nodeInserted(group, member, index);
+            }
+        });
+    }
+
+    // Reports a new member to the tree, unless the tree has not asked for the group's members yet, or counted
+    // this member already when it did.
+    private void nodeInserted(UserGroup group, UserInterface member, int index) {
+        Integer childCount = childCounts.get(group);
+        if (childCount == null || index < childCount) {
+            return;
+        }
+        childCounts.put(group, index + 1);
+        TreeModelEvent event = new TreeModelEvent(this, getPath(group), new int[] { index }, new Object[] { member });
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesInserted(event);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package minitwitter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * The User View includes a frame and panel that opens from the admin panel when selecting a user.
+ * In a User View, one is able to follow other users created from the admin, post messages to their followers,
+ * get message feed from users they follow, search the tweets of the users they follow, and see who else they
+ * might follow, all through the MiniTwitterEngine. The view listens for changes to the user's feed and adds
+ * only the new tweets, batching everything that arrives between two runs of the event thread into one update.
+ */
+public class UserView extends JFrame {
+    private static final long serialVersionUID = 1L;
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int SEARCH_PAGE_SIZE = 50;
+    private static final int MAX_RECOMMENDATIONS = 10;
+
+    private User user;
+    private MiniTwitterEngine engine;
+    private JList<String> messageFeed;
+    private DefaultListModel<String> feedModel;
+    private IntList shownTweetIds; // IDs of the tweets in feedModel, in the same order
+    private Queue<Tweet> pendingTweets; // Tweets reported by the feed listener but not yet shown
+    private AtomicBoolean feedUpdateScheduled;
+    private FeedListener feedListener;
+    private JList<String> followingList;
+    private DefaultListModel<String> followingModel;
+
+    private JTextField followUserField;
+    private JPopupMenu suggestionMenu;
+    private JTextField tweetField;
+    private JTextField searchField;
+    private JLabel creationTimeLabel;
+    private JLabel lastUpdateTimeLabel;
+
+    public UserView(User user, MiniTwitterEngine engine) {
+        this.user = user;
+        this.engine = engine;
+
+        setTitle("User View: " + user.getName());
+        setSize(600, 450);
+        setLayout(new BorderLayout());
+
+        // Subscribe before the feed is first loaded, so no tweet can fall between the two
+        shownTweetIds = new IntList();
+        pendingTweets = new ConcurrentLinkedQueue<>();
+        feedUpdateScheduled = new AtomicBoolean();
+        feedListener = new FeedListener() {
+            @Override
+            public void tweetsAdded(User user, List<Tweet> tweets) {
+                pendingTweets.addAll(tweets);
+                if (feedUpdateScheduled.compareAndSet(false, true)) {
+                    SwingUtilities.invokeLater(new Runnable() {
+                        public void run() {
+                            showPendingTweets();
+                        }
+                    });
+                }
+            }
+        };
+        user.addFeedListener(feedListener);
+
+        // Initialize components
+        initializeComponents();
+
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                user.removeFeedListener(feedListener);
+            }
+        });
+        setVisible(true);
+    }
+
+    private void initializeComponents() {
+        JPanel mainPanel = new JPanel(new BorderLayout());
+
+        feedModel = new DefaultListModel<>();
+        messageFeed = new JList<>(feedModel);
+        JScrollPane feedScrollPane = new JScrollPane(messageFeed);
+
+        followingModel = new DefaultListModel<>();
+        followingList = new JList<>(followingModel);
+        JScrollPane followingScrollPane = new JScrollPane(followingList);
+
+        // Create a panel for the top section with labels
+        JPanel topPanel = new JPanel(new GridLayout(3, 2));
+        JPanel followingPanel = new JPanel(new BorderLayout());
+        followingPanel.add(new JLabel("Following:"), BorderLayout.NORTH);
+        followingPanel.add(followingScrollPane, BorderLayout.CENTER);
+        topPanel.add(followingPanel);
+
+        JPanel tweetsPanel = new JPanel(new BorderLayout());
+        tweetsPanel.add(new JLabel("Tweets:"), BorderLayout.NORTH);
+        tweetsPanel.add(feedScrollPane, BorderLayout.CENTER);
+        topPanel.add(tweetsPanel);
+
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        creationTimeLabel = new JLabel("Creation Time: " + sdf.format(new Date(user.getCreationTime())));
+        lastUpdateTimeLabel = new JLabel("Last Update Time: " + sdf.format(new Date(user.getLastUpdateTime())));
+
+        topPanel.add(creationTimeLabel);
+        topPanel.add(lastUpdateTimeLabel);
+
+        JPanel controlPanel = new JPanel(new GridLayout(3, 1));
+
+        JPanel followPanel = new JPanel(new FlowLayout());
+        followUserField = new JTextField(15);
+        JButton followButton = new JButton("Follow User");
+        followButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                followUser();
+            }
+        });
+        suggestionMenu = new JPopupMenu();
+        suggestionMenu.setFocusable(false);
+        followUserField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                showSuggestions();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                showSuggestions();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                showSuggestions();
+            }
+        });
+        JButton whoToFollowButton = new JButton("Who to Follow");
+        whoToFollowButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showRecommendations((JButton) e.getSource());
+            }
+        });
+        followPanel.add(new JLabel("User to follow:"));
+        followPanel.add(followUserField);
+        followPanel.add(followButton);
+        followPanel.add(whoToFollowButton);
+
+        JPanel tweetPanel = new JPanel(new FlowLayout());
+        tweetField = new JTextField(20);
+        JButton tweetButton = new JButton("Post Tweet");
+        tweetButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                postTweet();
+            }
+        });
+        tweetPanel.add(new JLabel("Tweet:"));
+        tweetPanel.add(tweetField);
+        tweetPanel.add(tweetButton);
+
+        JPanel searchPanel = new JPanel(new FlowLayout());
+        searchField = new JTextField(20);
+        JButton searchButton = new JButton("Search Tweets");
+        searchButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                searchTweets();
+            }
+        });
+        searchPanel.add(new JLabel("Search:"));
+        searchPanel.add(searchField);
+        searchPanel.add(searchButton);
+
+        controlPanel.add(followPanel);
+        controlPanel.add(tweetPanel);
+        controlPanel.add(searchPanel);
+
+        mainPanel.add(topPanel, BorderLayout.CENTER);
+        mainPanel.add(controlPanel, BorderLayout.SOUTH);
+
+        add(mainPanel, BorderLayout.CENTER);
+
+        updateFollowingList();
+        loadFeed();
+    }
+
+    private void followUser() {
+        String userNameToFollow = followUserField.getText();
+        if (!userNameToFollow.isEmpty()) {
+            User userToFollow = engine.findUserByName(userNameToFollow);
+            if (userToFollow != null) {
+                engine.follow(user, userToFollow);
+                JOptionPane.showMessageDialog(this, "Now following " + userNameToFollow, "Success", JOptionPane.INFORMATION_MESSAGE);
+                updateFollowingList();
+            } else {
+                JOptionPane.showMessageDialog(this, "User not found: " + userNameToFollow, "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        } else {
+            JOptionPane.showMessageDialog(this, "User Name cannot be empty", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        followUserField.setText("");
+    }
+
+    // Shows the names in the directory that start with the text typed into the follow field.
+    private void showSuggestions() {
+        suggestionMenu.setVisible(false);
+        suggestionMenu.removeAll();
+        List<String> names = engine.findUserNamesByPrefix(followUserField.getText(), MAX_SUGGESTIONS);
+        if (names.isEmpty() || !followUserField.isShowing()) {
+            return;
+        }
+        for (final String name : names) {
+            JMenuItem item = new JMenuItem(name);
+            item.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    SwingUtilities.invokeLater(new Runnable() {
+                        public void run() {
+                            followUserField.setText(name);
+                            suggestionMenu.setVisible(false);
+                        }
+                    });
+                }
+            });
+            suggestionMenu.add(item);
+        }
+        suggestionMenu.show(followUserField, 0, followUserField.getHeight());
+    }
+
+    // Shows the users the engine recommends following under the button; picking one puts it in the follow field.
+    private void showRecommendations(JButton button) {
+        List<Recommendation> recommendations = engine.recommendFollows(user, MAX_RECOMMENDATIONS);
+        if (recommendations.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No recommendations yet, follow someone first or try again in a moment", "Info", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        JPopupMenu recommendationMenu = new JPopupMenu();
+        for (final Recommendation recommendation : recommendations) {
+            JMenuItem item = new JMenuItem(recommendation.getUser().getName());
+            item.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    followUserField.setText(recommendation.getUser().getName());
+                    suggestionMenu.setVisible(false);
+                }
+            });
+            recommendationMenu.add(item);
+        }
+        recommendationMenu.show(button, 0, button.getHeight());
+    }
+
+    private void postTweet() {
+        String tweet = tweetField.getText();
+        if (!tweet.isEmpty()) {
+            engine.post(user, tweet);
+            JOptionPane.showMessageDialog(this, "Tweet posted", "Success", JOptionPane.INFORMATION_MESSAGE);
+            updateLastUpdateTime();
+        } else {
+            JOptionPane.showMessageDialog(this, "Tweet cannot be empty", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        tweetField.setText("");
+    }
+
+    // Searches the tweets of this user and the users it follows, including ones that have left the feed.
+    private void searchTweets() {
+        final String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Search cannot be empty", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        new SearchResultsDialog(this, engine, "Followed tweets matching " + query, new IntFunction<SearchPage>() {
+            @Override
+            public SearchPage apply(int cursor) {
+                return engine.searchFollowedTweets(query, user, cursor, SEARCH_PAGE_SIZE);
+            }
+        });
+    }
+
+    /** Formats a tweet for display as "Tweet by <name>: <message>". */
+    static String formatTweet(MiniTwitterEngine engine, Tweet tweet) {
+        User author = engine.findUserById(tweet.getAuthorId());
+        return "Tweet by " + (author != null ? author.getName() : "unknown") + ": " + tweet.getBody();
+    }
+
+    private void loadFeed() {
+        for (Tweet tweet : engine.readLatest(user, User.getFeedCapacity())) {
+            showTweet(tweet);
+        }
+    }
+
+    // Runs on the event thread and shows every tweet the feed listener has reported since the last run.
+    private void showPendingTweets() {
+        feedUpdateScheduled.set(false);
+        Tweet tweet;
+        while ((tweet = pendingTweets.poll()) != null) {
+            showTweet(tweet);
+        }
+        updateLastUpdateTime();
+    }
+
+    // Adds the tweet at its place in posting order, unless it is already shown, keeping at most one feed's worth.
+    private void showTweet(Tweet tweet) {
+        int position = shownTweetIds.binarySearch(tweet.getId());
+        if (position < 0) {
+            position = -position - 1;
+            shownTweetIds.insert(position, tweet.getId());
+            feedModel.add(position, formatTweet(engine, tweet));
+            if (shownTweetIds.size() > User.getFeedCapacity()) {
+                shownTweetIds.remove(0);
+                feedModel.remove(0);
+            }
+        }
+    }
+
+    private void updateFollowingList() {
+        followingModel.clear();
+        for (User followedUser : user.getFollowings()) {
+            followingModel.addElement(followedUser.getName());
+        }
+    }
+
+    private void updateLastUpdateTime() {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        lastUpdateTimeLabel.setText("Last Update Time: " + sdf.format(new Date(user.getLastUpdateTime())));
+    }
+}
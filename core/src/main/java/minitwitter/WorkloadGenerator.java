@@ -0,0 +1,247 @@
+package minitwitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WorkloadGenerator builds a synthetic network in a headless MiniTwitterEngine and replays a schedule of posts
+ * and feed reads against it at a target rate, then reports the throughput it achieved and its latencies. The
+ * network follows a WorkloadProfile: users are spread over nested groups, follower counts follow a power law, a
+ * few accounts post far more than the rest, and celebrities may post in storms. Everything is drawn from one
+ * seed, so a run with the same profile and seed builds the same network and replays the same schedule.
+ *
+ * Latencies are measured from the time each operation was scheduled, not from when a thread got to it, so an
+ * engine that falls behind shows the delay its callers would see.
+ *
+ * Usage: java minitwitter.WorkloadGenerator [profile] [seed] [threads]
+ */
+public class WorkloadGenerator {
+    private static final byte POST = 0;
+    private static final byte READ = 1;
+    private static final int READ_LIMIT = 50; // Tweets read per feed read, about one screen
+
+    private final WorkloadProfile profile;
+    private final Random random;
+    private final MiniTwitterEngine engine;
+    private User[] users;
+    private int[] byPopularity; // User indexes, most followed first
+    private int[] byActivity; // User indexes, most active poster first
+    private long[] times; // Nanoseconds from the start at which each operation is due
+    private int[] actors;
+    private byte[] types;
+
+    public WorkloadGenerator(WorkloadProfile profile, long seed) {
+        this.profile = profile;
+        this.random = new Random(seed);
+        this.engine = new MiniTwitterEngine();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        WorkloadProfile profile = WorkloadProfile.valueOf(args.length > 0 ? args[0] : "USERS_10K");
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 2 * Runtime.getRuntime().availableProcessors();
+
+        WorkloadGenerator generator = new WorkloadGenerator(profile, seed);
+        System.out.println("Profile " + profile + " (" + profile.getDescription() + "), seed " + seed + ", " + threads + " threads");
+        long start = System.nanoTime();
+        int groups = generator.buildTree();
+        System.out.printf(Locale.ROOT, "Built %d users in %d groups in %.1f s%n", profile.getUsers(), groups, seconds(start));
+        start = System.nanoTime();
+        long follows = generator.buildFollowGraph();
+        System.out.printf(Locale.ROOT, "Made %d follow requests in %.1f s%n", follows, seconds(start));
+        generator.buildSchedule();
+        generator.replay(threads);
+        System.exit(0);
+    }
+
+    /** Creates the groups and users, and returns the number of groups created. */
+    public int buildTree() {
+        List<UserGroup> groups = new ArrayList<>();
+        List<UserGroup> level = new ArrayList<>();
+        groups.add(engine.getRoot());
+        level.add(engine.getRoot());
+        for (int depth = 1; depth <= profile.getGroupDepth(); depth++) {
+            List<UserGroup> next = new ArrayList<>();
+            for (UserGroup parent : level) {
+                for (int i = 0; i < profile.getGroupBranching(); i++) {
+                    next.add(engine.createGroup(parent.getName() + "." + i, parent));
+                }
+            }
+            groups.addAll(next);
+            level = next;
+        }
+        users = new User[profile.getUsers()];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = engine.createUser("user" + i, groups.get(random.nextInt(groups.size())));
+        }
+        byPopularity = shuffledIndexes(users.length);
+        byActivity = shuffledIndexes(users.length);
+        return groups.size();
+    }
+
+    /**
+     * Makes each user follow a geometrically distributed number of others, picked by a power law over popularity,
+     * then has the celebrities followed by their share of everyone. Returns the number of follow requests made,
+     * a few of which repeat an earlier one.
+     */
+    public long buildFollowGraph() {
+        long follows = 0;
+        double stop = 1.0 / (profile.getMeanFollows() + 1); // Chance of stopping after each follow
+        for (User user : users) {
+            while (random.nextDouble() >= stop) {
+                User followee = users[byPopularity[powerLawRank(users.length, profile.getFollowSkew())]];
+                if (followee != user) {
+                    engine.follow(user, followee);
+                    follows++;
+                }
+            }
+        }
+        for (int c = 0; c < profile.getCelebrities(); c++) {
+            User celebrity = users[byPopularity[c]];
+            for (User user : users) {
+                if (user != celebrity && random.nextDouble() < profile.getCelebrityReach()) {
+                    engine.follow(user, celebrity);
+                    follows++;
+                }
+            }
+        }
+        return follows;
+    }
+
+    /**
+     * Draws the schedule: steady operations arrive at random at the profile's rate, authors picked by activity
+     * and readers uniformly, and during each storm the celebrities post at the burst rate on top.
+     */
+    public void buildSchedule() {
+        long duration = profile.getDurationSeconds() * 1000000000L;
+        List<long[]> operations = new ArrayList<>(); // {time, actor, type}
+        double meanGap = 1e9 / profile.getOperationsPerSecond();
+        for (double time = exponential(meanGap); time < duration; time += exponential(meanGap)) {
+            if (random.nextDouble() < profile.getReadFraction()) {
+                operations.add(new long[] { (long) time, random.nextInt(users.length), READ });
+            } else {
+                operations.add(new long[] { (long) time, byActivity[powerLawRank(users.length, profile.getActivitySkew())], POST });
+            }
+        }
+        if (profile.getBurstIntervalSeconds() > 0 && profile.getCelebrities() > 0) {
+            double burstGap = 1e9 / profile.getBurstPostsPerSecond();
+            for (long burst = profile.getBurstIntervalSeconds() * 1000000000L; burst < duration;
+                    burst += profile.getBurstIntervalSeconds() * 1000000000L) {
+                long end = Math.min(duration, burst + profile.getBurstSeconds() * 1000000000L);
+                for (double time = burst + exponential(burstGap); time < end; time += exponential(burstGap)) {
+                    operations.add(new long[] { (long) time, byPopularity[random.nextInt(profile.getCelebrities())], POST });
+                }
+            }
+        }
+        operations.sort((a, b) -> Long.compare(a[0], b[0]));
+        times = new long[operations.size()];
+        actors = new int[operations.size()];
+        types = new byte[operations.size()];
+        for (int i = 0; i < times.length; i++) {
+            long[] operation = operations.get(i);
+            times[i] = operation[0];
+            actors[i] = (int) operation[1];
+            types[i] = (byte) operation[2];
+        }
+    }
+
+    /** Runs the schedule on the given number of threads and prints what was achieved. */
+    public void replay(int threadCount) throws InterruptedException {
+        Histogram postLatency = new Histogram();
+        Histogram deliveryLatency = new Histogram();
+        Histogram readLatency = new Histogram();
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime() + 100000000L; // Leaves the threads time to start
+        List<CompletableFuture<Tweet>> deliveries = new ArrayList<>();
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                List<CompletableFuture<Tweet>> pending = new ArrayList<>();
+                int i;
+                while ((i = next.getAndIncrement()) < times.length) {
+                    long due = start + times[i];
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    User actor = users[actors[i]];
+                    if (types[i] == POST) {
+                        CompletableFuture<Tweet> delivered = engine.post(actor, "good news " + i);
+                        postLatency.record(System.nanoTime() - due);
+                        pending.add(delivered.whenComplete((tweet, error) -> deliveryLatency.record(System.nanoTime() - due)));
+                    } else {
+                        engine.readLatest(actor, READ_LIMIT);
+                        readLatency.record(System.nanoTime() - due);
+                    }
+                }
+                synchronized (deliveries) {
+                    deliveries.addAll(pending);
+                }
+            }, "workload-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long finished = System.nanoTime();
+        CompletableFuture.allOf(deliveries.toArray(new CompletableFuture<?>[0])).join();
+        long delivered = System.nanoTime();
+
+        double elapsed = (finished - start) / 1e9;
+        System.out.printf(Locale.ROOT, "Ran %d operations in %.2f s: %.0f ops/s achieved, %.0f ops/s scheduled%n",
+                times.length, elapsed, times.length / elapsed, times.length / (profile.getDurationSeconds() * 1.0));
+        System.out.printf(Locale.ROOT, "Last delivery %.0f ms after the last operation%n", (delivered - finished) / 1e6);
+        report("post", postLatency);
+        report("delivery", deliveryLatency);
+        report("read", readLatency);
+    }
+
+    private static void report(String name, Histogram latency) {
+        System.out.printf(Locale.ROOT, "%-8s n=%-8d p50=%-8s p90=%-8s p99=%-8s p99.9=%-8s max=%s%n", name, latency.getCount(),
+                micros(latency.getPercentile(0.5)), micros(latency.getPercentile(0.9)), micros(latency.getPercentile(0.99)),
+                micros(latency.getPercentile(0.999)), micros(latency.getMax()));
+    }
+
+    private static String micros(long nanos) {
+        return nanos / 1000 + "us";
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    // Returns a rank in [0, n) drawn from a power law with the given exponent, so rank 0 is the most likely.
+    private int powerLawRank(int n, double exponent) {
+        double u = random.nextDouble();
+        double x;
+        if (exponent == 1) {
+            x = Math.pow(n, u);
+        } else {
+            x = Math.pow(1 - u * (1 - Math.pow(n, 1 - exponent)), 1 / (1 - exponent));
+        }
+        return Math.min(n - 1, (int) x - 1);
+    }
+
+    private double exponential(double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    private int[] shuffledIndexes(int n) {
+        int[] indexes = new int[n];
+        Arrays.setAll(indexes, i -> i);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,116 @@
+package minitwitter;
+
+/**
+ * WorkloadProfile describes a synthetic network and the traffic the WorkloadGenerator runs against it: how many
+ * users there are and how deeply their groups nest, how skewed the follower counts and posting activity are,
+ * and how fast, and in what bursts, tweets are posted and feeds read.
+ */
+public enum WorkloadProfile {
+    /** A small network with steady traffic. */
+    USERS_10K("10k users", 10000, 5, 3, 20, 1.2, 0, 0, 1.1, 5000, 10, 0.5, 0, 0, 0),
+
+    /** A large network with steady traffic. */
+    USERS_1M("1M users", 1000000, 10, 4, 10, 1.2, 0, 0, 1.1, 20000, 10, 0.5, 0, 0, 0),
+
+    /**
+     * A network where a few celebrities are followed by a large share of everyone, and every few seconds they
+     * post in a storm on top of the usual traffic, while their followers keep reading their feeds.
+     */
+    CELEBRITY_STORM("celebrity storm", 50000, 5, 3, 20, 1.2, 5, 0.3, 1.1, 5000, 15, 0.7, 5, 1, 20000);
+
+    private final String description;
+    private final int users;
+    private final int groupBranching; // Subgroups in each group
+    private final int groupDepth; // Levels of groups below the root
+    private final int meanFollows; // Mean number of users each user follows
+    private final double followSkew; // Power-law exponent of follower counts; higher means a few more popular users
+    private final int celebrities; // Most popular users, also followed by celebrityReach of everyone
+    private final double celebrityReach;
+    private final double activitySkew; // Power-law exponent of how often each user posts
+    private final int operationsPerSecond; // Steady rate of posts and feed reads together
+    private final int durationSeconds;
+    private final double readFraction; // Share of the steady operations that read a feed instead of posting
+    private final int burstIntervalSeconds; // Seconds between celebrity storms, or 0 for none
+    private final int burstSeconds; // Length of each storm
+    private final int burstPostsPerSecond; // Extra posts from the celebrities during a storm
+
+    WorkloadProfile(String description, int users, int groupBranching, int groupDepth, int meanFollows, double followSkew,
+            int celebrities, double celebrityReach, double activitySkew, int operationsPerSecond, int durationSeconds,
+            double readFraction, int burstIntervalSeconds, int burstSeconds, int burstPostsPerSecond) {
+        this.description = description;
+        this.users = users;
+        this.groupBranching = groupBranching;
+        this.groupDepth = groupDepth;
+        this.meanFollows = meanFollows;
+        this.followSkew = followSkew;
+        this.celebrities = celebrities;
+        this.celebrityReach = celebrityReach;
+        this.activitySkew = activitySkew;
+        this.operationsPerSecond = operationsPerSecond;
+        this.durationSeconds = durationSeconds;
+        this.readFraction = readFraction;
+        this.burstIntervalSeconds = burstIntervalSeconds;
+        this.burstSeconds = burstSeconds;
+        this.burstPostsPerSecond = burstPostsPerSecond;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getGroupBranching() {
+        return groupBranching;
+    }
+
+    public int getGroupDepth() {
+        return groupDepth;
+    }
+
+    public int getMeanFollows() {
+        return meanFollows;
+    }
+
+    public double getFollowSkew() {
+        return followSkew;
+    }
+
+    public int getCelebrities() {
+        return celebrities;
+    }
+
+    public double getCelebrityReach() {
+        return celebrityReach;
+    }
+
+    public double getActivitySkew() {
+        return activitySkew;
+    }
+
+    public int getOperationsPerSecond() {
+        return operationsPerSecond;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public double getReadFraction() {
+        return readFraction;
+    }
+
+    public int getBurstIntervalSeconds() {
+        return burstIntervalSeconds;
+    }
+
+    public int getBurstSeconds() {
+        return burstSeconds;
+    }
+
+    public int getBurstPostsPerSecond() {
+        return burstPostsPerSecond;
+    }
+}
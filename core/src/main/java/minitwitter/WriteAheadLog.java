@@ -0,0 +1,386 @@
+package minitwitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * WriteAheadLog records every change to the network in an append-only binary file, so that replaying the file
+ * after a restart rebuilds the same tree, follow graph and feeds. Each record is written as its length, its
+ * bytes and a CRC32 checksum, so a record torn by a crash is detected and cut off during replay. Strings are
+ * written as a length and UTF-8 bytes, as in the Snapshot, so they have no length limit.
+ *
+ * Records are appended to an in-memory buffer while the caller holds whatever locks order the change, which
+ * keeps the log in the same order as the changes. Writing the buffer to the file happens in sync(), after
+ * those locks are released. The first thread into sync() writes everything buffered so far on behalf of every
+ * thread waiting, so concurrent operations share one write and, with FsyncPolicy.ALWAYS, one fsync.
+ *
+ * A batch stays buffered until it has been written and, if the policy asks for it, forced. If writing or
+ * forcing fails the log is marked failed: the failed sync and every later one throws, and every later record is
+ * refused, so the file never has a hole that a replay would silently skip over.
+ */
+public class WriteAheadLog {
+    private static final byte ROOT = 0;
+    private static final byte ADD_USER = 1;
+    private static final byte ADD_GROUP = 2;
+    private static final byte FOLLOW = 3;
+    private static final byte POST = 4;
+
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+    private final Object flushLock = new Object(); // Held by the thread writing a batch to the file
+    private final ThreadLocal<long[]> lastAppended = ThreadLocal.withInitial(() -> new long[1]);
+    private ScheduledExecutorService forcer; // Forces the file at a fixed interval under FsyncPolicy.INTERVAL
+
+    private Buffer pending; // Records appended but not yet written, guarded by this
+    private volatile IOException failure; // Why a batch could not be written or forced, once one could not
+    private long appendedSequence; // Number of records appended, guarded by this
+    private volatile long writtenSequence; // Number of records written to the file, and forced if ALWAYS
+
+    private WriteAheadLog(FileChannel channel, FsyncPolicy policy, long forceIntervalMillis) {
+        this.channel = channel;
+        this.policy = policy;
+        this.pending = new Buffer();
+        if (policy == FsyncPolicy.INTERVAL) {
+            forcer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            forcer.scheduleWithFixedDelay(this::force, forceIntervalMillis, forceIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Opens the log at the given path, creating it if it does not exist. Under FsyncPolicy.INTERVAL the file is
+     * forced every forceIntervalMillis milliseconds. The log must be replayed before anything is appended.
+     */
+    public static WriteAheadLog open(Path path, FsyncPolicy policy, long forceIntervalMillis) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new WriteAheadLog(channel, policy, forceIntervalMillis);
+    }
+
+    /**
+     * Replays every complete record in the log on top of the given root group, which is null for an empty network
+     * or the root loaded from a Snapshot. The users, groups, follows and tweets the log describes are rebuilt,
+     * skipping any the snapshot already holds, and the root group is returned, or null if there is still none.
+     * A torn record at the end is cut off, and the log is left positioned for appending. Replay must run before
+     * any tweet is posted in this process, so that replayed tweets get the same IDs they had when they were logged.
+     */
+    public UserGroup replay(UserGroup root) throws IOException {
+        Map<Long, User> users = new HashMap<>();
+        Map<Long, UserGroup> groups = new HashMap<>();
+        if (root != null) {
+            index(root, users, groups);
+        }
+
+        long position = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(4);
+        while (position + 4 <= size) {
+            header.clear();
+            channel.read(header, position);
+            int length = header.getInt(0);
+            if (length <= 0 || position + 4 + length + 8 > size) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length + 8);
+            channel.read(record, position + 4);
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), 0, length);
+            if (crc.getValue() != record.getLong(length)) {
+                break;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record.array(), 0, length));
+            byte type = in.readByte();
+            if (type == ROOT) {
+                long id = in.readLong();
+                IdGenerator.advancePast(id);
+                if (root == null) {
+                    root = new UserGroup(id, readString(in), in.readLong());
+                    groups.put(id, root);
+                }
+            } else if (type == ADD_USER) {
+                long id = in.readLong();
+                IdGenerator.advancePast(id);
+                if (!users.containsKey(id)) {
+                    User user = new User(id, readString(in), in.readLong());
+                    groups.get(in.readLong()).add(user);
+                    users.put(id, user);
+                }
+            } else if (type == ADD_GROUP) {
+                long id = in.readLong();
+                IdGenerator.advancePast(id);
+                if (!groups.containsKey(id)) {
+                    UserGroup group = new UserGroup(id, readString(in), in.readLong());
+                    groups.get(in.readLong()).add(group);
+                    groups.put(id, group);
+                }
+            } else if (type == FOLLOW) {
+                User follower = users.get(in.readLong());
+                User followee = users.get(in.readLong());
+                follower.follow(followee, in.readInt());
+            } else if (type == POST) {
+                int tweetId = in.readInt();
+                int restored = TweetStore.getInstance().size();
+                if (tweetId > restored) {
+                    throw new IOException("Cannot replay tweet " + tweetId + " as tweet " + restored
+                            + "; replay must start from an empty TweetStore or the snapshot taken before this log");
+                }
+                // Tweets below the restored count are already in the snapshot
+                if (tweetId == restored) {
+                    User author = users.get(in.readLong());
+                    long time = in.readLong();
+                    boolean pushed = in.readBoolean();
+                    author.post(readString(in), time, pushed);
+                }
+            } else {
+                throw new IOException("Unknown record type " + type + " at offset " + position);
+            }
+            position += 4 + length + 8;
+        }
+
+        channel.truncate(position);
+        channel.position(position);
+        return root;
+    }
+
+    /**
+     * Empties the log once a Snapshot holds everything in it. Records appended before the call are written
+     * first; nothing should post or follow while the log is being reset.
+     */
+    public void reset() throws IOException {
+        synchronized (this) {
+            lastAppended.get()[0] = appendedSequence;
+        }
+        sync();
+        synchronized (flushLock) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        }
+    }
+
+    /** Records the root group of a new network. */
+    public void logRoot(UserGroup root) {
+        append(ROOT, out -> {
+            out.writeLong(root.getId());
+            writeString(out, root.getName());
+            out.writeLong(root.getCreationTime());
+        });
+    }
+
+    /** Records a user being added to a group. */
+    public void logAddUser(User user, UserGroup parent) {
+        append(ADD_USER, out -> {
+            out.writeLong(user.getId());
+            writeString(out, user.getName());
+            out.writeLong(user.getCreationTime());
+            out.writeLong(parent.getId());
+        });
+    }
+
+    /** Records a group being added to a group. */
+    public void logAddGroup(UserGroup group, UserGroup parent) {
+        append(ADD_GROUP, out -> {
+            out.writeLong(group.getId());
+            writeString(out, group.getName());
+            out.writeLong(group.getCreationTime());
+            out.writeLong(parent.getId());
+        });
+    }
+
+    /** Records a follow, with the ID of the first tweet the follower is to receive from the followee. */
+    public void logFollow(User follower, User followee, int since) {
+        append(FOLLOW, out -> {
+            out.writeLong(follower.getId());
+            out.writeLong(followee.getId());
+            out.writeInt(since);
+        });
+    }
+
+    /** Records a posted tweet. */
+    public void logTweet(Tweet tweet) {
+        append(encodeTweet(tweet));
+    }
+
+    /**
+     * Encodes the record of a posted tweet without appending it, so the TweetStore can encode a tweet before
+     * storing it and never store a tweet it cannot log. The record is appended with logEncodedTweet().
+     */
+    public byte[] encodeTweet(Tweet tweet) {
+        checkNotFailed();
+        return frame(POST, out -> {
+            out.writeInt(tweet.getId());
+            out.writeLong(tweet.getAuthorId());
+            out.writeLong(tweet.getTime());
+            out.writeBoolean(tweet.isPushed());
+            writeString(out, tweet.getBody());
+        });
+    }
+
+    /** Appends a tweet record made by encodeTweet(). */
+    public void logEncodedTweet(byte[] record) {
+        append(record);
+    }
+
+    /**
+     * Writes every record this thread has appended to the file, and under FsyncPolicy.ALWAYS forces it to disk,
+     * before returning. Records appended by other threads in the meantime are written in the same batch. Throws
+     * if the batch cannot be written or forced, or if the log has already failed.
+     */
+    public void sync() throws IOException {
+        long target = lastAppended.get()[0];
+        if (writtenSequence >= target) {
+            return;
+        }
+        synchronized (flushLock) {
+            if (failure != null) {
+                throw new IOException("The write-ahead log failed earlier", failure);
+            }
+            if (writtenSequence >= target) {
+                return;
+            }
+            byte[] batch;
+            long batchSequence;
+            synchronized (this) {
+                batch = pending.toByteArray();
+                batchSequence = appendedSequence;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (policy == FsyncPolicy.ALWAYS) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+            synchronized (this) {
+                pending.dropFirst(batch.length);
+            }
+            writtenSequence = batchSequence;
+        }
+    }
+
+    /** Writes and forces everything appended so far, then closes the file, even if the log has failed. */
+    public void close() throws IOException {
+        if (forcer != null) {
+            forcer.shutdownNow();
+        }
+        synchronized (this) {
+            lastAppended.get()[0] = appendedSequence;
+        }
+        try {
+            sync();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void index(UserGroup group, Map<Long, User> users, Map<Long, UserGroup> groups) {
+        groups.put(group.getId(), group);
+        for (UserInterface member : group.getMembers()) {
+            if (member instanceof User) {
+                users.put(((User) member).getId(), (User) member);
+            } else {
+                index((UserGroup) member, users, groups);
+            }
+        }
+    }
+
+    private void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("Could not force the write-ahead log: " + e.getMessage());
+        }
+    }
+
+    // Throws if a batch could not be written or forced, so nothing more is logged after the hole it left.
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new IllegalStateException("The write-ahead log has failed", failure);
+        }
+    }
+
+    // Encodes a record with its length and checksum, ready to be appended.
+    private static byte[] frame(byte type, RecordWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode log record", e);
+        }
+        byte[] record = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        ByteBuffer framed = ByteBuffer.allocate(4 + record.length + 8);
+        framed.putInt(record.length).put(record).putLong(crc.getValue());
+        return framed.array();
+    }
+
+    private void append(byte type, RecordWriter writer) {
+        append(frame(type, writer));
+    }
+
+    private void append(byte[] framed) {
+        synchronized (this) {
+            checkNotFailed();
+            pending.write(framed, 0, framed.length);
+            lastAppended.get()[0] = ++appendedSequence;
+        }
+    }
+
+    // Strings are written as their UTF-8 length and bytes, so names and tweets of any length can be logged.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Bad string length " + length + " in log record");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // The buffer of pending records, which can drop a batch from its front once the batch has been written.
+    private static class Buffer extends ByteArrayOutputStream {
+        void dropFirst(int length) {
+            System.arraycopy(buf, length, buf, 0, count - length);
+            count -= length;
+        }
+    }
+
+    /** Writes the fields of one record. */
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}